@@ -39,7 +39,13 @@ public class SecurityConfig {
                                 "/movies/v3/api-docs",
                                 "/movies/nowPlaying",
                                 "/movies/upcomingMovies",
-                                "/favorites"
+                                "/movies/nowPlaying/batch",
+                                "/movies/upcomingMovies/batch",
+                                "/movies/nowPlaying/top",
+                                "/movies/upcomingMovies/top",
+                                "/movies/search",
+                                "/favorites",
+                                "/favorites/trending"
                         ).permitAll()
                         .anyExchange().authenticated()
                 )
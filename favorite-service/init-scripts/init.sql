@@ -3,8 +3,9 @@ CREATE TABLE IF NOT EXISTS favorites (
     id BIGSERIAL PRIMARY KEY,
     -- User identifier (from Keycloak/JWT subject)
     user_id VARCHAR(255) NOT NULL,
-    -- Movie data mapped from my Java Record
+    -- TMDB movie id; the movie itself is read from the movie-catalog topic
     movie_id INTEGER NOT NULL,
+    -- Movie data stored with favorites added before the catalog, the fallback while it has no record
     title VARCHAR(255),
     original_title VARCHAR(255),
     overview TEXT,                        -- TEXT type allows for long descriptions
@@ -23,4 +24,14 @@ CREATE TABLE IF NOT EXISTS favorites (
 
     -- A user cannot favorite the same movie_id twice
     CONSTRAINT uk_user_movie UNIQUE (user_id, movie_id)
-    );
\ No newline at end of file
+    );
+
+-- When a user last removed a movie, by event time, so a late add from before it is not applied
+CREATE TABLE IF NOT EXISTS favorite_removals (
+    id BIGSERIAL PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL,
+    movie_id INTEGER NOT NULL,
+    removed_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT uk_removal_user_movie UNIQUE (user_id, movie_id)
+    );
@@ -1,9 +1,14 @@
 package com.movies.favoriteservice;
 
+import com.movies.shared.VirtualThreadPinningMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import(VirtualThreadPinningMonitor.class)
+@EnableScheduling
 public class FavoriteServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,16 +1,21 @@
 package com.movies.favoriteservice.config;
 
+import com.movies.favoriteservice.favorite.catalog.MovieCatalogView;
+import com.movies.favoriteservice.favorite.event.FavoriteEventDeserializer;
+import com.movies.favoriteservice.favorite.event.FavoriteEventSchemas;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,34 +28,76 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${favorite.events.batch.window:250ms}")
+    private Duration batchWindow;
+
+    private final MovieCatalogView movieCatalogView;
+
+    public KafkaConsumerConfig(MovieCatalogView movieCatalogView) {
+        this.movieCatalogView = movieCatalogView;
+    }
+
     @Bean
     public ConsumerFactory<String,Object> consumerFactory(){
-        Map<String,Object> config = new HashMap<>();
+        Map<String,Object> config = consumerConfig();
+        config.put(ConsumerConfig.GROUP_ID_CONFIG,groupId);
+        return consumerFactory(config);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+        return listenerContainerFactory(consumerFactory());
+    }
 
+    //For listeners that assign their partitions and replay them from the start on every replica, see
+    //TrendingFavoritesConsumer. Without a group.id nothing is committed and no group is left on the broker
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> replayKafkaListenerContainerFactory() {
+        Map<String,Object> config = consumerConfig();
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return listenerContainerFactory(consumerFactory(config));
+    }
+
+    //Hands the listener everything a poll returned, see MovieFavoriteBatchConsumer
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = listenerContainerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        //Lets a user's quick toggles gather in one poll, see FavoriteChanges
+        factory.getContainerProperties().setIdleBetweenPolls(batchWindow.toMillis());
+        return factory;
+    }
+
+    private Map<String,Object> consumerConfig() {
+        Map<String,Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,bootstrapServers);
-        config.put(ConsumerConfig.GROUP_ID_CONFIG,groupId);
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG,"earliest");
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-//        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-//        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.movies.favoriteservice.favorite.event.MovieFavoriteAddedEvent");
-        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, true);
-        config.put(JsonDeserializer.TYPE_MAPPINGS,
-                "movieFavoriteAdded:com.movies.favoriteservice.favorite.event.MovieFavoriteAddedEvent," +
-                "movieFavoriteRemoved:com.movies.favoriteservice.favorite.event.MovieFavoriteRemovedEvent");
+        return config;
+    }
 
+    private ConsumerFactory<String,Object> consumerFactory(Map<String,Object> config) {
+        //Records that cannot be read reach the error handler instead of stopping the consumer. Every replica
+        //replays the favorite topics for the trending leaderboard, so each one sees the movies of old events
         return new DefaultKafkaConsumerFactory<>(config,
                 new StringDeserializer(),
-                new JsonDeserializer<>(Object.class, false));
+                new ErrorHandlingDeserializer<>(
+                        new FavoriteEventDeserializer(FavoriteEventSchemas.load(), movieCatalogView::seed)));
     }
 
-    @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    private ConcurrentKafkaListenerContainerFactory<String, Object> listenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
         factory.setConcurrency(3);
+        //Spring Boot only switches the listener containers it builds itself to virtual threads
+        if (virtualThreads) {
+            factory.getContainerProperties().setListenerTaskExecutor(new VirtualThreadTaskExecutor("kafka-listener-"));
+        }
         return factory;
     }
 }
@@ -24,7 +24,8 @@ public class SecurityConfig {
                                 "/webjars/**",
                                 //! Allow unauthenticated access to the nowPlaying endpoint
                                 "/nowPlaying",
-                                "/upcomingMovies"
+                                "/upcomingMovies",
+                                "/api/favorites/trending"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,117 @@
+package com.movies.favoriteservice.favorite;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes a poll's worth of favorite changes with one statement per kind of change.
+ * <p>
+ * {@link FavoriteMovie} uses identity ids, which keeps Hibernate from batching its inserts, so the
+ * rows are written here with plain JDBC. Each list is bound as arrays and unnested, so every batch
+ * size shares a single prepared statement, the same way {@link FavoriteRepository#findFavoriteMovieIds} does.
+ * <p>
+ * The latest change by event time wins: a favorite's {@code created_at} is the time it was last added,
+ * and a remove leaves a {@link FavoriteRemoval} behind, so a change that arrives after a later one is
+ * skipped instead of undoing it.
+ */
+@Repository
+public class FavoriteBatchWriter {
+
+    //A favorite that already exists keeps the latest add, so a remove older than that add cannot delete it
+    private static final String INSERT = """
+            insert into favorites (user_id, movie_id, created_at)
+            select added.user_id, added.movie_id, added.created_at
+            from unnest(?::varchar[], ?::int[], ?::timestamp[]) as added(user_id, movie_id, created_at)
+            where not exists (select 1 from favorite_removals r
+                              where r.user_id = added.user_id and r.movie_id = added.movie_id
+                              and r.removed_at >= added.created_at)
+            on conflict (user_id, movie_id) do update set created_at = excluded.created_at
+            where favorites.created_at < excluded.created_at
+            returning user_id, movie_id
+            """;
+
+    private static final String DELETE = """
+            with removed as (
+                select * from unnest(?::varchar[], ?::int[], ?::timestamp[]) as removed(user_id, movie_id, removed_at)
+            ), recorded as (
+                insert into favorite_removals (user_id, movie_id, removed_at)
+                select user_id, movie_id, removed_at from removed
+                on conflict (user_id, movie_id) do update set removed_at = excluded.removed_at
+                where favorite_removals.removed_at < excluded.removed_at
+            )
+            delete from favorites f
+            using removed
+            where f.user_id = removed.user_id and f.movie_id = removed.movie_id
+            and f.created_at <= removed.removed_at
+            returning f.user_id, f.movie_id
+            """;
+
+    private static final String PURGE_REMOVALS = "delete from favorite_removals where removed_at < ?";
+
+    private static final RowMapper<UserMovieId> USER_MOVIE_ID =
+            (row, i) -> new UserMovieId(row.getString("user_id"), row.getInt("movie_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FavoriteBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the favorites that were inserted or added again later, leaving out repeated and stale adds.
+     */
+    public List<UserMovieId> insert(List<FavoriteChanges.Addition> additions) {
+        if (additions.isEmpty()) {
+            return List.of();
+        }
+        String[] userIds = new String[additions.size()];
+        Integer[] movieIds = new Integer[additions.size()];
+        Timestamp[] createdAt = new Timestamp[additions.size()];
+        for (int i = 0; i < additions.size(); i++) {
+            FavoriteChanges.Addition addition = additions.get(i);
+            userIds[i] = addition.userId();
+            movieIds[i] = addition.movieId();
+            createdAt[i] = Timestamp.valueOf(addition.createdAt());
+        }
+        return jdbcTemplate.query(INSERT, statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("varchar", userIds));
+            statement.setArray(2, statement.getConnection().createArrayOf("int4", movieIds));
+            statement.setArray(3, statement.getConnection().createArrayOf("timestamp", createdAt));
+        }, USER_MOVIE_ID);
+    }
+
+    /**
+     * Records the removals and returns the favorites that were deleted, leaving out ones added again since.
+     */
+    public List<UserMovieId> delete(List<FavoriteChanges.Removal> removals) {
+        if (removals.isEmpty()) {
+            return List.of();
+        }
+        String[] userIds = new String[removals.size()];
+        Integer[] movieIds = new Integer[removals.size()];
+        Timestamp[] removedAt = new Timestamp[removals.size()];
+        for (int i = 0; i < removals.size(); i++) {
+            FavoriteChanges.Removal removal = removals.get(i);
+            userIds[i] = removal.userId();
+            movieIds[i] = removal.movieId();
+            removedAt[i] = Timestamp.valueOf(removal.removedAt());
+        }
+        return jdbcTemplate.query(DELETE, statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("varchar", userIds));
+            statement.setArray(2, statement.getConnection().createArrayOf("int4", movieIds));
+            statement.setArray(3, statement.getConnection().createArrayOf("timestamp", removedAt));
+        }, USER_MOVIE_ID);
+    }
+
+    /**
+     * Drops the removals older than the given time. Returns how many were dropped.
+     */
+    public int purgeRemovals(LocalDateTime before) {
+        return jdbcTemplate.update(PURGE_REMOVALS, Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,41 @@
+package com.movies.favoriteservice.favorite;
+
+import com.movies.favoriteservice.favorite.catalog.MovieCatalogView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Seeds the {@link MovieCatalogView} with the movies stored with favorites added before the catalog, so
+ * they keep their details, in the trending leaderboard too, until movie-service publishes them.
+ */
+@Component
+@Slf4j
+public class FavoriteCatalogSeed {
+
+    private final FavoriteRepository favoriteRepository;
+    private final MovieCatalogView movieCatalogView;
+
+    public FavoriteCatalogSeed(FavoriteRepository favoriteRepository, MovieCatalogView movieCatalogView) {
+        this.favoriteRepository = favoriteRepository;
+        this.movieCatalogView = movieCatalogView;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void seed() {
+        AtomicInteger seeded = new AtomicInteger();
+        try (Stream<FavoriteMovie> favorites = favoriteRepository.streamStoredMovies()) {
+            favorites.forEach(favorite -> {
+                movieCatalogView.seed(favorite.storedMovie());
+                seeded.incrementAndGet();
+            });
+        }
+        log.info("Movie catalog seeded from stored favorites: movies={}", seeded.get());
+    }
+}
@@ -0,0 +1,84 @@
+package com.movies.favoriteservice.favorite;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The favorite changes of one poll, collapsed to the latest change of each user and movie by event
+ * time, so a movie toggled several times within the poll costs a single write.
+ * <p>
+ * Adds and removes arrive on separate topics, so the order they are collected in says nothing about
+ * the order they happened in. The change with the later {@code eventTimestamp} wins, and a remove wins
+ * over an add of the same instant. {@link FavoriteBatchWriter} applies the same rule against the
+ * changes of earlier polls.
+ */
+public class FavoriteChanges {
+
+    private final Map<UserMovieId, Change> changes = new LinkedHashMap<>();
+    private int received;
+
+    public void added(String userId, Integer movieId, LocalDateTime eventTimestamp) {
+        change(new UserMovieId(userId, movieId), new Change(true, eventTimestamp));
+    }
+
+    public void removed(String userId, Integer movieId, LocalDateTime eventTimestamp) {
+        change(new UserMovieId(userId, movieId), new Change(false, eventTimestamp));
+    }
+
+    private void change(UserMovieId favorite, Change change) {
+        received++;
+        changes.merge(favorite, change, (current, next) -> next.supersedes(current) ? next : current);
+    }
+
+    public List<Addition> additions() {
+        List<Addition> additions = new ArrayList<>();
+        changes.forEach((favorite, change) -> {
+            if (change.added()) {
+                additions.add(new Addition(favorite.userId(), favorite.movieId(), change.eventTimestamp()));
+            }
+        });
+        return additions;
+    }
+
+    public List<Removal> removals() {
+        List<Removal> removals = new ArrayList<>();
+        changes.forEach((favorite, change) -> {
+            if (!change.added()) {
+                removals.add(new Removal(favorite.userId(), favorite.movieId(), change.eventTimestamp()));
+            }
+        });
+        return removals;
+    }
+
+    /**
+     * How many changes were collected, before collapsing.
+     */
+    public int received() {
+        return received;
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public record Addition(String userId, Integer movieId, LocalDateTime createdAt) {
+    }
+
+    public record Removal(String userId, Integer movieId, LocalDateTime removedAt) {
+    }
+
+    private record Change(boolean added, LocalDateTime eventTimestamp) {
+
+        private boolean supersedes(Change current) {
+            int order = eventTimestamp.compareTo(current.eventTimestamp);
+            return order > 0 || (order == 0 && !added);
+        }
+    }
+}
@@ -1,31 +1,51 @@
 package com.movies.favoriteservice.favorite;
 
+import com.movies.favoriteservice.favorite.trending.TrendingLeaderboard;
+import com.movies.favoriteservice.favorite.trending.TrendingMovie;
+import com.movies.favoriteservice.favorite.trending.TrendingWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/favorites")
 public class FavoriteController {
 
     private final FavoriteService favoriteService;
+    private final TrendingLeaderboard trendingLeaderboard;
+    private final int maxCheckIds;
+    private final int maxTrending;
 
-    public FavoriteController(FavoriteService favoriteService) {
+    public FavoriteController(FavoriteService favoriteService,
+                              TrendingLeaderboard trendingLeaderboard,
+                              @Value("${favorite.check.max-ids:100}") int maxCheckIds,
+                              @Value("${favorite.trending.max-limit:100}") int maxTrending) {
         this.favoriteService = favoriteService;
+        this.trendingLeaderboard = trendingLeaderboard;
+        this.maxCheckIds = maxCheckIds;
+        this.maxTrending = maxTrending;
     }
 
     @GetMapping
-    public ResponseEntity<List<FavoriteMovie>> getUserFavorites(
+    public ResponseEntity<List<FavoriteMovieResponse>> getUserFavorites(
             @AuthenticationPrincipal Jwt jwt
     ){
         String userId = jwt.getSubject();
-        List<FavoriteMovie> favorites = favoriteService.getUserFavorites(userId);
+        List<FavoriteMovieResponse> favorites = favoriteService.getUserFavorites(userId);
 
         return ResponseEntity.ok(favorites);
     }
@@ -40,4 +60,32 @@ public class FavoriteController {
 
         return ResponseEntity.ok(isFavorite);
     }
+
+    //Takes the movie ids of a page and returns the ones the user favorited, in the order they were sent
+    @PostMapping("/check")
+    public ResponseEntity<List<Integer>> checkFavorites(
+            @RequestBody List<Integer> movieIds,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        Set<Integer> requested = new LinkedHashSet<>(movieIds);
+        if (requested.contains(null) || requested.size() > maxCheckIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 0 and " + maxCheckIds + " movie ids can be checked at once");
+        }
+
+        Set<Integer> favorites = favoriteService.findFavorites(jwt.getSubject(), requested);
+        return ResponseEntity.ok(requested.stream().filter(favorites::contains).toList());
+    }
+
+    //Most favorited movies over the last HOUR, DAY, WEEK or ALL_TIME, answered from memory
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingMovie>> getTrending(
+            @RequestParam(required = false, defaultValue = "DAY") TrendingWindow window,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+
+        if (limit < 1 || limit > maxTrending) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxTrending);
+        }
+        return ResponseEntity.ok(trendingLeaderboard.top(window, limit, System.currentTimeMillis()));
+    }
 }
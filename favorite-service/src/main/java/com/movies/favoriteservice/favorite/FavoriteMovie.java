@@ -1,5 +1,6 @@
 package com.movies.favoriteservice.favorite;
 
+import com.movies.events.CatalogMovie;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * A movie a user favorited. New favorites only store the id and the movie is read from the catalog, see
+ * {@link FavoriteMovieResponse}. Favorites added before the catalog still hold the movie as it was when
+ * they were added, which is used while the catalog has no record of it.
+ */
 @Entity
 @Table(
         name = "favorites",
@@ -72,9 +78,32 @@ public class FavoriteMovie {
 
     private Boolean video;
 
-    private Boolean isFavorite;
-
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
+
+    /**
+     * Returns the movie stored with this favorite, or {@code null} when it was added with its id only.
+     */
+    public CatalogMovie storedMovie() {
+        if (title == null) {
+            return null;
+        }
+        return CatalogMovie.newBuilder()
+                .setId(movieId)
+                .setTitle(title)
+                .setOriginalTitle(originalTitle)
+                .setOverview(overview)
+                .setReleaseDate(releaseDate)
+                .setPosterPath(posterPath)
+                .setBackdropPath(backdropPath)
+                .setPopularity(popularity == null ? 0.0 : popularity)
+                .setVoteAverage(voteAverage == null ? 0.0 : voteAverage)
+                .setVoteCount(voteCount == null ? 0 : voteCount)
+                .setGenreIds(genreIds == null ? List.of() : genreIds)
+                .setOriginalLanguage(originalLanguage)
+                .setAdult(Boolean.TRUE.equals(adult))
+                .setVideo(Boolean.TRUE.equals(video))
+                .build();
+    }
 }
@@ -0,0 +1,33 @@
+package com.movies.favoriteservice.favorite;
+
+import com.movies.events.CatalogMovie;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A favorite joined with its movie from the catalog, in the shape favorites were returned in when every
+ * row stored the whole movie. While the catalog has no record of the movie, the one stored with the favorite
+ * is used, and the movie fields are only {@code null} when the favorite was added with its id alone.
+ */
+public record FavoriteMovieResponse(Long id, String userId, Integer movieId, String title, String originalTitle,
+                                    String overview, LocalDate releaseDate, String posterPath, String backdropPath,
+                                    Double popularity, Double voteAverage, Integer voteCount, List<Integer> genreIds,
+                                    String originalLanguage, Boolean adult, Boolean video, Boolean isFavorite,
+                                    LocalDateTime createdAt) {
+
+    static FavoriteMovieResponse of(FavoriteMovie favorite, CatalogMovie catalogMovie) {
+        CatalogMovie movie = catalogMovie != null ? catalogMovie : favorite.storedMovie();
+        if (movie == null) {
+            return new FavoriteMovieResponse(favorite.getId(), favorite.getUserId(), favorite.getMovieId(),
+                    null, null, null, null, null, null, null, null, null, null, null, null, null, true,
+                    favorite.getCreatedAt());
+        }
+        return new FavoriteMovieResponse(favorite.getId(), favorite.getUserId(), favorite.getMovieId(),
+                movie.getTitle(), movie.getOriginalTitle(), movie.getOverview(), movie.getReleaseDate(),
+                movie.getPosterPath(), movie.getBackdropPath(), movie.getPopularity(), movie.getVoteAverage(),
+                movie.getVoteCount(), movie.getGenreIds(), movie.getOriginalLanguage(), movie.getAdult(),
+                movie.getVideo(), true, favorite.getCreatedAt());
+    }
+}
@@ -0,0 +1,41 @@
+package com.movies.favoriteservice.favorite;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a user last removed a movie from their favorites, by event time. An add that happened before
+ * it is stale and not applied, whichever topic delivered it first. Written and purged by the
+ * {@link FavoriteBatchWriter}.
+ */
+@Entity
+@Table(
+        name = "favorite_removals",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_removal_user_movie", columnNames = {"user_id", "movie_id"})
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteRemoval {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "movie_id", nullable = false)
+    private Integer movieId;
+
+    @Column(name = "removed_at", nullable = false)
+    private LocalDateTime removedAt;
+}
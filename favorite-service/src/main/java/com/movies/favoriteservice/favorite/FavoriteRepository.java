@@ -1,10 +1,16 @@
 package com.movies.favoriteservice.favorite;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FavoriteRepository extends JpaRepository<FavoriteMovie,Long> {
@@ -13,4 +19,24 @@ public interface FavoriteRepository extends JpaRepository<FavoriteMovie,Long> {
     boolean existsByUserIdAndMovieId(String userId, Integer movieId);
     void deleteByUserIdAndMovieId(String userId, Integer movieId);
     long countByUserId(String userId);
+
+    @Query("select f.movieId from FavoriteMovie f where f.userId = :userId")
+    List<Integer> findMovieIdsByUserId(@Param("userId") String userId);
+
+    //One array parameter, so every list size shares a single prepared statement and index scan
+    @Query(value = "select movie_id from favorites where user_id = :userId and movie_id = any(:movieIds)",
+            nativeQuery = true)
+    List<Integer> findFavoriteMovieIds(@Param("userId") String userId, @Param("movieIds") Integer[] movieIds);
+
+    //Streamed through a cursor, so the backfill holds one batch of rows at a time whatever the table size
+    @Query("select new com.movies.favoriteservice.favorite.UserMovieId(f.userId, f.movieId) "
+            + "from FavoriteMovie f order by f.userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<UserMovieId> streamAllUserMovieIds();
+
+    //The latest stored copy of every movie favorites were added with before the catalog
+    @Query(value = "select distinct on (movie_id) * from favorites where title is not null "
+            + "order by movie_id, created_at desc", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<FavoriteMovie> streamStoredMovies();
 }
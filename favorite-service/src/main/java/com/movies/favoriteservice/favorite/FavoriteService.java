@@ -1,66 +1,110 @@
 package com.movies.favoriteservice.favorite;
 
-import com.movies.favoriteservice.favorite.event.MovieFavoriteAddedEvent;
-import com.movies.favoriteservice.favorite.event.MovieFavoriteRemovedEvent;
+import com.movies.favoriteservice.favorite.catalog.MovieCatalogView;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Slf4j
 public class FavoriteService {
     private final FavoriteRepository favoriteRepository;
+    private final FavoriteSets favoriteSets;
+    private final MovieCatalogView movieCatalogView;
+    private final FavoriteBatchWriter favoriteBatchWriter;
+    private final Duration removalRetention;
 
-    public FavoriteService(FavoriteRepository favoriteRepository) {
+    public FavoriteService(FavoriteRepository favoriteRepository, FavoriteSets favoriteSets,
+                           MovieCatalogView movieCatalogView, FavoriteBatchWriter favoriteBatchWriter,
+                           @Value("${favorite.events.removal-retention:7d}") Duration removalRetention) {
         this.favoriteRepository = favoriteRepository;
+        this.favoriteSets = favoriteSets;
+        this.movieCatalogView = movieCatalogView;
+        this.favoriteBatchWriter = favoriteBatchWriter;
+        this.removalRetention = removalRetention;
     }
 
+    /**
+     * Writes the collapsed changes of a poll in one transaction, with one insert and one delete, and
+     * returns the changes that took effect: {@code true} for favorites added, {@code false} for removed.
+     * Changes superseded by a later one that was already written are left out.
+     */
     @Transactional
-    public void addFavorite(MovieFavoriteAddedEvent event){
-        if(favoriteRepository.existsByUserIdAndMovieId(event.getUserId(),event.getMovieId())){
-            log.warn("Favorite already exists: userId={}, movieId={}",
-                    event.getUserId(),event.getMovieId());
-        }
+    public Map<UserMovieId, Boolean> applyChanges(FavoriteChanges changes) {
+        List<UserMovieId> inserted = favoriteBatchWriter.insert(changes.additions());
+        List<UserMovieId> deleted = favoriteBatchWriter.delete(changes.removals());
+        log.info("Favorite changes applied: received={}, collapsed={}, inserted={}, deleted={}",
+                changes.received(), changes.size(), inserted.size(), deleted.size());
 
-        FavoriteMovie favorite = FavoriteMovie.builder()
-                .userId(event.getUserId())
-                .movieId(event.getMovieId())
-                .title(event.getTitle())
-                .originalTitle(event.getOriginalTitle())
-                .overview(event.getOverview())
-                .releaseDate(event.getReleaseDate())
-                .posterPath(event.getPosterPath())
-                .backdropPath(event.getBackdropPath())
-                .popularity(event.getPopularity())
-                .voteAverage(event.getVoteAverage())
-                .voteCount(event.getVoteCount())
-                .genreIds(event.getGenreIds())
-                .originalLanguage(event.getOriginalLanguage())
-                .adult(event.getAdult())
-                .video(event.getVideo())
-                .createdAt(LocalDateTime.now())
-                .build();
-        favoriteRepository.save(favorite);
-        log.info("Favorite saved: userId={}, movieId={}, title={}",
-                event.getUserId(), event.getMovieId(), event.getTitle());
+        Map<UserMovieId, Boolean> applied = new LinkedHashMap<>();
+        inserted.forEach(favorite -> applied.put(favorite, true));
+        deleted.forEach(favorite -> applied.put(favorite, false));
+        return applied;
     }
 
-    @Transactional
-    public void removeFavorite(MovieFavoriteRemovedEvent event){
-        favoriteRepository.deleteByUserIdAndMovieId(event.getUserId(), event.getMovieId());
-
-        log.info("Favorite removed: userId={}, movieId={}",
-                event.getUserId(), event.getMovieId());
+    //Removals only have to outlive the adds that can still arrive after them
+    @Scheduled(fixedDelayString = "${favorite.events.removal-purge-interval:1h}",
+            initialDelayString = "${favorite.events.removal-purge-interval:1h}")
+    public void purgeRemovals() {
+        int purged = favoriteBatchWriter.purgeRemovals(LocalDateTime.now().minus(removalRetention));
+        log.info("Favorite removals purged: purged={}", purged);
     }
 
-    public List<FavoriteMovie> getUserFavorites(String userId) {
-        return favoriteRepository.findByUserId(userId);
+    //Joined with the local catalog at read time, the rows only hold ids
+    public List<FavoriteMovieResponse> getUserFavorites(String userId) {
+        return favoriteRepository.findByUserId(userId).stream()
+                .map(favorite -> FavoriteMovieResponse.of(favorite, movieCatalogView.get(favorite.getMovieId())))
+                .toList();
     }
 
+    //Answered from the user's favorite set, Postgres is only asked while the set is not complete
     public boolean isFavorite(String userId, Integer movieId) {
-        return favoriteRepository.existsByUserIdAndMovieId(userId, movieId);
+        Boolean favorite = favoriteSets.isFavorite(userId, movieId);
+        return favorite != null ? favorite : favoriteRepository.existsByUserIdAndMovieId(userId, movieId);
+    }
+
+    /**
+     * Returns the movies among the given ones that the user favorited, in one set lookup or, while the
+     * user's set is not complete, in one query.
+     */
+    public Set<Integer> findFavorites(String userId, Collection<Integer> movieIds) {
+        if (movieIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Integer> favorites = favoriteSets.favoritesAmong(userId, movieIds);
+        if (favorites != null) {
+            return favorites;
+        }
+        return new HashSet<>(favoriteRepository.findFavoriteMovieIds(userId, movieIds.toArray(Integer[]::new)));
+    }
+
+    /**
+     * Applies committed changes to the favorite sets, rebuilding each incomplete set only once.
+     */
+    public void updateFavoriteSets(Map<UserMovieId, Boolean> changes) {
+        Set<String> rebuilt = new HashSet<>();
+        changes.forEach((favorite, added) -> {
+            if (rebuilt.contains(favorite.userId())) {
+                return;
+            }
+            boolean applied = added
+                    ? favoriteSets.add(favorite.userId(), favorite.movieId())
+                    : favoriteSets.remove(favorite.userId(), favorite.movieId());
+            if (!applied) {
+                favoriteSets.replace(favorite.userId(), favoriteRepository.findMovieIdsByUserId(favorite.userId()));
+                rebuilt.add(favorite.userId());
+            }
+        });
     }
 }
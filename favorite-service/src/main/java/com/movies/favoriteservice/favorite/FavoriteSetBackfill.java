@@ -0,0 +1,106 @@
+package com.movies.favoriteservice.favorite;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds every user's {@link FavoriteSets} entry from Postgres, on demand through
+ * {@code POST /actuator/favoritesets} (the endpoint has to be exposed with
+ * {@code management.endpoints.web.exposure.include}).
+ * <p>
+ * The favorites are streamed in user order and written {@code favorite.sets.backfill.batch-users}
+ * users per Redis pipeline. Only one replica runs a backfill at a time.
+ * <p>
+ * A favorite that is changed while its user's set is being rebuilt can be lost from the set.
+ * The next change for that user, or the next backfill, corrects it.
+ */
+@Component
+@Endpoint(id = "favoritesets")
+@Slf4j
+public class FavoriteSetBackfill {
+
+    private static final String LOCK_KEY = "favorites:backfill";
+
+    private final FavoriteRepository favoriteRepository;
+    private final FavoriteSets favoriteSets;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final int batchUsers;
+    private final Duration lockTimeout;
+
+    public FavoriteSetBackfill(FavoriteRepository favoriteRepository,
+                               FavoriteSets favoriteSets,
+                               StringRedisTemplate stringRedisTemplate,
+                               @Value("${favorite.sets.backfill.batch-users:500}") int batchUsers,
+                               @Value("${favorite.sets.backfill.lock-timeout:30m}") Duration lockTimeout) {
+        this.favoriteRepository = favoriteRepository;
+        this.favoriteSets = favoriteSets;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.batchUsers = batchUsers;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @WriteOperation
+    @Transactional(readOnly = true)
+    public Map<String, Object> backfill() {
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", lockTimeout))) {
+            return Map.of("status", "running elsewhere");
+        }
+        long started = System.nanoTime();
+        try (Stream<UserMovieId> favorites = favoriteRepository.streamAllUserMovieIds()) {
+            Batch batch = new Batch();
+            favorites.forEachOrdered(favorite -> {
+                if (!favorite.userId().equals(batch.userId)) {
+                    batch.nextUser(favorite.userId());
+                }
+                batch.movieIds.add(favorite.movieId());
+                batch.favorites++;
+            });
+            batch.flush();
+
+            long millis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            log.info("Favorite sets rebuilt: users={}, favorites={}, millis={}", batch.users, batch.favorites, millis);
+            return Map.of("status", "done", "users", batch.users, "favorites", batch.favorites, "millis", millis);
+        } finally {
+            stringRedisTemplate.delete(LOCK_KEY);
+        }
+    }
+
+    //Collects consecutive rows of the same user and writes full batches of users
+    private class Batch {
+
+        private final Map<String, List<Integer>> sets = new HashMap<>();
+        private String userId;
+        private List<Integer> movieIds;
+        private long users;
+        private long favorites;
+
+        private void nextUser(String nextUserId) {
+            if (sets.size() >= batchUsers) {
+                flush();
+            }
+            userId = nextUserId;
+            movieIds = new ArrayList<>();
+            sets.put(userId, movieIds);
+            users++;
+        }
+
+        private void flush() {
+            if (!sets.isEmpty()) {
+                favoriteSets.replaceAll(sets);
+                sets.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.movies.favoriteservice.favorite;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Each user's favorite movie ids as a Redis set under {@code favorites:user:<id>}, the same key
+ * movie-service reads to mark favorites on its pages.
+ * <p>
+ * A set is only trusted once it holds the {@link #COMPLETE} marker, which is written when the set is
+ * rebuilt from Postgres. Sets without it are treated as missing and the caller falls back to Postgres;
+ * movie-service only reads the sets and serves unpersonalized pages until they are complete. Changes are only applied to complete sets,
+ * so a set never looks complete while it misses favorites stored before it was built.
+ */
+@Component
+@Slf4j
+public class FavoriteSets {
+
+    //Never a TMDB movie id, so it does not disturb membership checks on the set
+    static final String COMPLETE = "complete";
+
+    private static final String KEY_PREFIX = "favorites:user:";
+
+    //KEYS[1] = set, ARGV[1] = movie id; returns 0 when the set is not complete and was left alone
+    private static final RedisScript<Long> ADD = applyIfComplete("SADD");
+    private static final RedisScript<Long> REMOVE = applyIfComplete("SREM");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Counter redisChecks;
+    private final Counter databaseChecks;
+
+    public FavoriteSets(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisChecks = checks(meterRegistry, "redis");
+        this.databaseChecks = checks(meterRegistry, "database");
+    }
+
+    static String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    /**
+     * Returns whether the user favorited the movie, or {@code null} when the user's set is not complete
+     * or Redis cannot be reached and the answer has to come from Postgres.
+     */
+    public Boolean isFavorite(String userId, Integer movieId) {
+        Set<Integer> favorites = favoritesAmong(userId, List.of(movieId));
+        return favorites == null ? null : favorites.contains(movieId);
+    }
+
+    /**
+     * Returns which of the movies the user favorited, or {@code null} when the answer has to come
+     * from Postgres, with a single SMISMEMBER for all of them.
+     */
+    public Set<Integer> favoritesAmong(String userId, Collection<Integer> movieIds) {
+        Object[] members = new Object[movieIds.size() + 1];
+        members[0] = COMPLETE;
+        int i = 1;
+        for (Integer movieId : movieIds) {
+            members[i++] = movieId.toString();
+        }
+        try {
+            Map<Object, Boolean> membership = stringRedisTemplate.opsForSet().isMember(key(userId), members);
+            if (membership != null && Boolean.TRUE.equals(membership.get(COMPLETE))) {
+                redisChecks.increment();
+                Set<Integer> favorites = new HashSet<>();
+                for (Integer movieId : movieIds) {
+                    if (Boolean.TRUE.equals(membership.get(movieId.toString()))) {
+                        favorites.add(movieId);
+                    }
+                }
+                return favorites;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not read the favorite set: userId={}, error={}", userId, e.getMessage());
+        }
+        databaseChecks.increment();
+        return null;
+    }
+
+    /**
+     * Adds the movie to a complete set. Returns {@code false} when the set has to be rebuilt instead.
+     */
+    public boolean add(String userId, Integer movieId) {
+        return apply(ADD, userId, movieId);
+    }
+
+    public boolean remove(String userId, Integer movieId) {
+        return apply(REMOVE, userId, movieId);
+    }
+
+    /**
+     * Replaces the user's set with the given favorites and marks it complete.
+     */
+    public void replace(String userId, Collection<Integer> movieIds) {
+        try {
+            replaceAll(Map.of(userId, movieIds));
+        } catch (DataAccessException e) {
+            log.warn("Could not rebuild the favorite set: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the sets of several users in one pipeline. Each set is built under a temporary key
+     * and renamed over the old one, so readers never see a half built set.
+     */
+    public void replaceAll(Map<String, ? extends Collection<Integer>> favoritesByUser) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            favoritesByUser.forEach((userId, movieIds) -> writeSet(connection, userId, movieIds));
+            return null;
+        });
+    }
+
+    private void writeSet(RedisConnection connection, String userId, Collection<Integer> movieIds) {
+        byte[] key = bytes(key(userId));
+        byte[] buildKey = bytes(key(userId) + ":build");
+        byte[][] members = new byte[movieIds.size() + 1][];
+        members[0] = bytes(COMPLETE);
+        int i = 1;
+        for (Integer movieId : movieIds) {
+            members[i++] = bytes(movieId.toString());
+        }
+        connection.keyCommands().del(buildKey);
+        connection.setCommands().sAdd(buildKey, members);
+        connection.keyCommands().rename(buildKey, key);
+    }
+
+    private boolean apply(RedisScript<Long> script, String userId, Integer movieId) {
+        try {
+            Long applied = stringRedisTemplate.execute(script, List.of(key(userId)), movieId.toString());
+            return applied != null && applied == 1L;
+        } catch (DataAccessException e) {
+            log.warn("Could not update the favorite set: userId={}, movieId={}, error={}",
+                    userId, movieId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static RedisScript<Long> applyIfComplete(String command) {
+        return new DefaultRedisScript<>(
+                "if redis.call('SISMEMBER', KEYS[1], '" + COMPLETE + "') == 0 then return 0 end\n"
+                        + "redis.call('" + command + "', KEYS[1], ARGV[1])\n"
+                        + "return 1", Long.class);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("favorite.checks")
+                .description("Favorite membership checks by where they were answered")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
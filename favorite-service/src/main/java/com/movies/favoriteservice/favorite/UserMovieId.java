@@ -0,0 +1,7 @@
+package com.movies.favoriteservice.favorite;
+
+/**
+ * A favorite reduced to the pair the favorite sets need, read without loading the entity.
+ */
+public record UserMovieId(String userId, Integer movieId) {
+}
@@ -0,0 +1,50 @@
+package com.movies.favoriteservice.favorite.catalog;
+
+import com.movies.events.CatalogMovie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Materializes the compacted {@code movie-catalog} topic into the {@link MovieCatalogView}.
+ * <p>
+ * Like the trending leaderboard, every replica assigns itself every partition of the topic and reads it
+ * from the beginning, without a consumer group. Compaction keeps the latest record of
+ * each movie, so the replay stays about as long as the catalog itself. A record without a value
+ * removes the movie.
+ */
+@Component
+@Slf4j
+public class MovieCatalogConsumer {
+
+    private final MovieCatalogView movieCatalogView;
+
+    public MovieCatalogConsumer(MovieCatalogView movieCatalogView) {
+        this.movieCatalogView = movieCatalogView;
+    }
+
+    @KafkaListener(
+            id = "movieCatalog",
+            topicPartitions = @TopicPartition(topic = "${spring.kafka.topics.movie-catalog:movie-catalog}",
+                    partitions = "${favorite.replay.partitions:0-2}",
+                    partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")),
+            containerFactory = "replayKafkaListenerContainerFactory"
+    )
+    public void consume(@Payload(required = false) CatalogMovie movie,
+                        @Header(KafkaHeaders.RECEIVED_KEY) String key) {
+        if (movie != null) {
+            movieCatalogView.put(movie);
+            return;
+        }
+        try {
+            movieCatalogView.remove(Integer.valueOf(key));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring catalog tombstone with an invalid key: key={}", key);
+        }
+    }
+}
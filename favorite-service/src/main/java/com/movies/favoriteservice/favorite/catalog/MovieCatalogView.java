@@ -0,0 +1,59 @@
+package com.movies.favoriteservice.favorite.catalog;
+
+import com.movies.events.CatalogMovie;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This replica's copy of the {@code movie-catalog} topic: the latest record of every movie, joined
+ * against favorites when they are read. Favorites only store ids, so a movie's details are kept once
+ * here instead of once per user who favorited it.
+ * <p>
+ * Movies stored with favorites from before the catalog, and carried by favorite events from before it,
+ * are seeded in as well. A seeded movie never replaces a catalog record and is replaced by the next one.
+ */
+@Component
+public class MovieCatalogView {
+
+    private final Map<Integer, CatalogMovie> movies = new ConcurrentHashMap<>();
+
+    public MovieCatalogView(MeterRegistry meterRegistry) {
+        Gauge.builder("favorite.catalog.movies", movies, Map::size)
+                .description("Movies in the local copy of the movie catalog")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the movie, or {@code null} while the catalog has no record of it yet.
+     */
+    public CatalogMovie get(Integer movieId) {
+        return movies.get(movieId);
+    }
+
+    public void put(CatalogMovie movie) {
+        movies.put(movie.getId(), movie);
+    }
+
+    /**
+     * Adds a movie from outside the catalog topic, unless the catalog already has a record of it.
+     */
+    public void seed(CatalogMovie movie) {
+        movies.putIfAbsent(movie.getId(), movie);
+    }
+
+    public void remove(Integer movieId) {
+        movies.remove(movieId);
+    }
+
+    public int size() {
+        return movies.size();
+    }
+
+    public void clear() {
+        movies.clear();
+    }
+}
@@ -0,0 +1,112 @@
+package com.movies.favoriteservice.favorite.event;
+
+import com.movies.events.CatalogMovie;
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Reads favorite events and catalog movies written in Avro's single-object encoding: a two byte marker, the fingerprint of
+ * the writer schema and the binary record. The writer schema is looked up in {@link FavoriteEventSchemas}
+ * and resolved against the generated event classes, so no type header is needed.
+ * <p>
+ * Records published as JSON before the switch are still read, so the topics can be replayed while they
+ * retain them.
+ * <p>
+ * Added events from before the movie-catalog topic, in JSON or the first schema, carry the whole movie.
+ * The event is read with its id only, like a current one, and the movie is handed to the given consumer.
+ */
+public class FavoriteEventDeserializer implements Deserializer<Object> {
+
+    //Avro single-object encoding: C3 01, then the 8 byte little-endian CRC-64-AVRO fingerprint
+    private static final int HEADER_LENGTH = 10;
+
+    //The classes generated from the current schemas, by record name
+    private static final Map<String, Schema> READER_SCHEMAS = Map.of(
+            MovieFavoriteAddedEvent.getClassSchema().getFullName(), MovieFavoriteAddedEvent.getClassSchema(),
+            MovieFavoriteRemovedEvent.getClassSchema().getFullName(), MovieFavoriteRemovedEvent.getClassSchema(),
+            CatalogMovie.getClassSchema().getFullName(), CatalogMovie.getClassSchema());
+
+    private final FavoriteEventSchemas schemas;
+    private final Consumer<CatalogMovie> movies;
+    //Readers are thread-safe and resolving a writer schema is expensive, so one per fingerprint
+    private final Map<Long, Readers> readers = new ConcurrentHashMap<>();
+    private final LegacyJsonFavoriteEvents legacyJson;
+
+    public FavoriteEventDeserializer(FavoriteEventSchemas schemas) {
+        this(schemas, movie -> {
+        });
+    }
+
+    public FavoriteEventDeserializer(FavoriteEventSchemas schemas, Consumer<CatalogMovie> movies) {
+        this.schemas = schemas;
+        this.movies = movies;
+        this.legacyJson = new LegacyJsonFavoriteEvents(movies);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!isSingleObject(data)) {
+            return legacyJson.read(headers, data);
+        }
+
+        long fingerprint = ByteBuffer.wrap(data, 2, 8).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        Readers reader = readers.computeIfAbsent(fingerprint, this::reader);
+        try {
+            SpecificRecord record = reader.record().read(null, DecoderFactory.get()
+                    .binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, null));
+            if (reader.movie() != null) {
+                movies.accept(reader.movie().read(null, DecoderFactory.get()
+                        .binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, null)));
+            }
+            return record;
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read favorite event: topic=" + topic, e);
+        }
+    }
+
+    private Readers reader(long fingerprint) {
+        Schema writerSchema = schemas.findByFingerprint(fingerprint);
+        if (writerSchema == null) {
+            throw new SerializationException("Unknown favorite event schema: fingerprint=" + fingerprint);
+        }
+        Schema readerSchema = READER_SCHEMAS.get(writerSchema.getFullName());
+        if (readerSchema == null) {
+            throw new SerializationException("Not a favorite event: " + writerSchema.getFullName());
+        }
+        //The first added event schema still carries the movie, read it as a catalog movie as well
+        SpecificDatumReader<CatalogMovie> movie = readerSchema.equals(MovieFavoriteAddedEvent.getClassSchema())
+                && writerSchema.getField("title") != null
+                ? new SpecificDatumReader<>(writerSchema, CatalogMovie.getClassSchema())
+                : null;
+        return new Readers(new SpecificDatumReader<>(writerSchema, readerSchema), movie);
+    }
+
+    private static boolean isSingleObject(byte[] data) {
+        return data.length >= HEADER_LENGTH && data[0] == (byte) 0xC3 && data[1] == (byte) 0x01;
+    }
+
+    private record Readers(SpecificDatumReader<SpecificRecord> record, SpecificDatumReader<CatalogMovie> movie) {
+    }
+}
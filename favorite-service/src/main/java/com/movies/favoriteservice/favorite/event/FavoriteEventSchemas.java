@@ -0,0 +1,55 @@
+package com.movies.favoriteservice.favorite.event;
+
+import com.movies.events.CatalogMovie;
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.message.SchemaStore;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Stand-in for a schema registry: every version of the favorite event and catalog schemas, read from the shared
+ * {@code schemas/favorite-events} directory packaged on the classpath.
+ * <p>
+ * Each record names the schema it was written with by its fingerprint. Superseded versions are kept in
+ * {@code favorite-events/history}, so records written before or after a schema change are still resolved
+ * against the classes generated from the current version.
+ */
+public class FavoriteEventSchemas implements SchemaStore {
+
+    private static final String LOCATION = "classpath*:favorite-events/**/*.avsc";
+
+    private final SchemaStore.Cache schemas = new SchemaStore.Cache();
+
+    public static FavoriteEventSchemas load() {
+        FavoriteEventSchemas store = new FavoriteEventSchemas();
+        store.add(MovieFavoriteAddedEvent.getClassSchema());
+        store.add(MovieFavoriteRemovedEvent.getClassSchema());
+        store.add(CatalogMovie.getClassSchema());
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                //A parser per file, versions of the same record share its name
+                try (InputStream in = resource.getInputStream()) {
+                    store.add(new Schema.Parser().parse(in));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the favorite event schemas", e);
+        }
+        return store;
+    }
+
+    public void add(Schema schema) {
+        schemas.addSchema(schema);
+    }
+
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        return schemas.findByFingerprint(fingerprint);
+    }
+}
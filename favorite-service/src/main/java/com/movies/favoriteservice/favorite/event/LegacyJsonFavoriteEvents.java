@@ -0,0 +1,99 @@
+package com.movies.favoriteservice.favorite.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movies.events.CatalogMovie;
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Converts favorite events published as JSON, before the Avro schemas, into the generated classes.
+ * The type comes from the {@code __TypeId__} header the JSON serializer added. The movie an added event
+ * carries is handed to the given consumer, since the current events only hold its id.
+ */
+class LegacyJsonFavoriteEvents {
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+    private final Consumer<CatalogMovie> movies;
+
+    LegacyJsonFavoriteEvents(Consumer<CatalogMovie> movies) {
+        this.movies = movies;
+    }
+
+    Object read(Headers headers, byte[] data) {
+        Header typeId = headers == null ? null : headers.lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        String type = typeId == null ? null : new String(typeId.value(), StandardCharsets.UTF_8);
+        try {
+            if ("movieFavoriteAdded".equals(type)) {
+                Added added = objectMapper.readValue(data, Added.class);
+                if (added.title() != null) {
+                    movies.accept(added.toMovie());
+                }
+                return added.toEvent();
+            }
+            if ("movieFavoriteRemoved".equals(type)) {
+                return objectMapper.readValue(data, Removed.class).toEvent();
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not read JSON favorite event: type=" + type, e);
+        }
+        throw new SerializationException("Not a favorite event: type=" + type);
+    }
+
+    record Added(String userId, Integer movieId, String title, String originalTitle, String overview,
+                 LocalDate releaseDate, String posterPath, String backdropPath, Double popularity,
+                 Double voteAverage, Integer voteCount, List<Integer> genreIds, String originalLanguage,
+                 Boolean adult, Boolean video, LocalDateTime eventTimestamp, String eventId) {
+
+        MovieFavoriteAddedEvent toEvent() {
+            return MovieFavoriteAddedEvent.newBuilder()
+                    .setUserId(userId)
+                    .setMovieId(movieId)
+                    .setEventTimestamp(eventTimestamp)
+                    .setEventId(eventId)
+                    .build();
+        }
+
+        CatalogMovie toMovie() {
+            return CatalogMovie.newBuilder()
+                    .setId(movieId)
+                    .setTitle(title)
+                    .setOriginalTitle(originalTitle)
+                    .setOverview(overview)
+                    .setReleaseDate(releaseDate)
+                    .setPosterPath(posterPath)
+                    .setBackdropPath(backdropPath)
+                    .setPopularity(popularity == null ? 0.0 : popularity)
+                    .setVoteAverage(voteAverage == null ? 0.0 : voteAverage)
+                    .setVoteCount(voteCount == null ? 0 : voteCount)
+                    .setGenreIds(genreIds == null ? List.of() : genreIds)
+                    .setOriginalLanguage(originalLanguage)
+                    .setAdult(Boolean.TRUE.equals(adult))
+                    .setVideo(Boolean.TRUE.equals(video))
+                    .build();
+        }
+    }
+
+    record Removed(String userId, Integer movieId, LocalDateTime eventTimestamp, String eventId) {
+
+        MovieFavoriteRemovedEvent toEvent() {
+            return MovieFavoriteRemovedEvent.newBuilder()
+                    .setUserId(userId)
+                    .setMovieId(movieId)
+                    .setEventTimestamp(eventTimestamp)
+                    .setEventId(eventId)
+                    .build();
+        }
+    }
+}
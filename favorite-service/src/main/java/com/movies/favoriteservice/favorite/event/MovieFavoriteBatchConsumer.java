@@ -0,0 +1,67 @@
+package com.movies.favoriteservice.favorite.event;
+
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import com.movies.favoriteservice.favorite.FavoriteChanges;
+import com.movies.favoriteservice.favorite.FavoriteService;
+import com.movies.favoriteservice.favorite.UserMovieId;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies favorite events a poll at a time: the records of both topics are collapsed to the latest
+ * change of each user and movie by event time and written in one transaction, see
+ * {@link FavoriteChanges} and {@link FavoriteService#applyChanges}.
+ * <p>
+ * Both topics are keyed by user and have the same number of partitions, and the range assignor hands
+ * partition N of both to the same consumer, so all of a user's changes are written by one thread.
+ * The container waits {@code favorite.events.batch.window} between polls, so the changes a user makes
+ * in quick succession tend to meet in one poll and cost a single write. A poll holds at most
+ * {@code favorite.events.batch.max-records} records. When the write fails the container's error
+ * handler retries the whole poll. Set {@code favorite.events.batch-listener=false} to go back to
+ * {@link MovieFavoriteEventConsumer}.
+ */
+@Component
+@ConditionalOnProperty(name = "favorite.events.batch-listener", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class MovieFavoriteBatchConsumer {
+    private final FavoriteService favoriteService;
+
+    @KafkaListener(
+            topics = {"${spring.kafka.topics.movie-favorite-added}", "${spring.kafka.topics.movie-favorite-removed}"},
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            properties = {
+                    "max.poll.records=${favorite.events.batch.max-records:500}",
+                    "partition.assignment.strategy=org.apache.kafka.clients.consumer.RangeAssignor"
+            }
+    )
+    public void consume(List<ConsumerRecord<String, Object>> records) {
+        FavoriteChanges changes = new FavoriteChanges();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof MovieFavoriteAddedEvent added) {
+                changes.added(added.getUserId(), added.getMovieId(), added.getEventTimestamp());
+            } else if (record.value() instanceof MovieFavoriteRemovedEvent removed) {
+                changes.removed(removed.getUserId(), removed.getMovieId(), removed.getEventTimestamp());
+            } else {
+                //Records that could not be deserialized arrive without a value
+                log.warn("Skipping unreadable favorite event: topic={}, partition={}, offset={}",
+                        record.topic(), record.partition(), record.offset());
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<UserMovieId, Boolean> applied = favoriteService.applyChanges(changes);
+        favoriteService.updateFavoriteSets(applied);
+    }
+}
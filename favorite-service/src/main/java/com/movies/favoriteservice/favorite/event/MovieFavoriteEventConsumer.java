@@ -1,65 +1,67 @@
 package com.movies.favoriteservice.favorite.event;
 
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import com.movies.favoriteservice.favorite.FavoriteChanges;
 import com.movies.favoriteservice.favorite.FavoriteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+/**
+ * Applies favorite events one record at a time. Only used with {@code favorite.events.batch-listener=false},
+ * otherwise {@link MovieFavoriteBatchConsumer} consumes the topics.
+ * <p>
+ * Both topics are read by one listener with the range assignor, like the batch listener, so a user's
+ * adds and removes are written by one thread, and each is checked against the latest change by event time.
+ */
 @Component
+@ConditionalOnProperty(name = "favorite.events.batch-listener", havingValue = "false")
 @RequiredArgsConstructor
 @Slf4j
 public class MovieFavoriteEventConsumer {
     private final FavoriteService favoriteService;
 
     @KafkaListener(
-            topics = "${spring.kafka.topics.movie-favorite-added}",
+            topics = {"${spring.kafka.topics.movie-favorite-added}", "${spring.kafka.topics.movie-favorite-removed}"},
             groupId = "${spring.kafka.consumer.group-id}",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            properties = "partition.assignment.strategy=org.apache.kafka.clients.consumer.RangeAssignor"
     )
-    public void consumeMovieFavoriteAdded(
-            @Payload MovieFavoriteAddedEvent event,
+    public void consume(
+            @Payload Object event,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset) {
-        log.info("Received MovieFavoriteAddedEvent: eventId={}, userId={}, movieId={}, partition={}, offset={}",
-                event.getEventId(), event.getUserId(), event.getMovieId(), partition, offset);
+        FavoriteChanges changes = new FavoriteChanges();
+        String eventId;
+        if (event instanceof MovieFavoriteAddedEvent added) {
+            changes.added(added.getUserId(), added.getMovieId(), added.getEventTimestamp());
+            eventId = added.getEventId();
+        } else if (event instanceof MovieFavoriteRemovedEvent removed) {
+            changes.removed(removed.getUserId(), removed.getMovieId(), removed.getEventTimestamp());
+            eventId = removed.getEventId();
+        } else {
+            return;
+        }
+        log.info("Received {}: eventId={}, partition={}, offset={}",
+                event.getClass().getSimpleName(), eventId, partition, offset);
 
         try {
-            favoriteService.addFavorite(event);
-            log.info("Successfully processed MovieFavoriteAddedEvent: eventId={}", event.getEventId());
+            favoriteService.updateFavoriteSets(favoriteService.applyChanges(changes));
+            log.info("Successfully processed {}: eventId={}", event.getClass().getSimpleName(), eventId);
 
         } catch (Exception e) {
-            log.error("Error processing MovieFavoriteAddedEvent: eventId={}, error={}",
-                    event.getEventId(), e.getMessage(), e);
+            log.error("Error processing {}: eventId={}, error={}",
+                    event.getClass().getSimpleName(), eventId, e.getMessage(), e);
             // In production:
             // - Retry logic
             // - Dead letter queue
             // - Alert monitoring system
         }
     }
-
-    @KafkaListener(
-            topics = "${spring.kafka.topics.movie-favorite-removed}",
-            groupId = "${spring.kafka.consumer.group-id}",
-            containerFactory = "kafkaListenerContainerFactory"
-    )
-    public void consumeMovieFavoriteRemoved(
-            @Payload MovieFavoriteRemovedEvent event,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset) {
-        log.info("Received MovieFavoriteRemovedEvent: eventId={}, userId={}, movieId={}, partition={}, offset={}",
-                event.getEventId(), event.getUserId(), event.getMovieId(), partition, offset);
-
-        try {
-            favoriteService.removeFavorite(event);
-            log.info("Successfully processed MovieFavoriteRemovedEvent: eventId={}", event.getEventId());
-
-        } catch (Exception e) {
-            log.error("Error processing MovieFavoriteRemovedEvent: eventId={}, error={}",
-                    event.getEventId(), e.getMessage(), e);
-        }
-    }
 }
@@ -0,0 +1,87 @@
+package com.movies.favoriteservice.favorite.trending;
+
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * Feeds the {@link TrendingLeaderboard} from both favorite topics.
+ * <p>
+ * Every replica keeps its own leaderboard, so it assigns itself every partition of both topics
+ * ({@code favorite.replay.partitions}, matching the partitions movie-service creates them with) and
+ * reads them from the beginning whenever the listener starts. It has no consumer group, so nothing is
+ * committed and no group is left behind on the broker. Starting a replica therefore rebuilds the
+ * leaderboard by replay, as far back as the topics retain events. A rebuild can also be
+ * requested through {@code POST /actuator/trendingfavorites} (exposed with
+ * {@code management.endpoints.web.exposure.include}), which stops the listener, clears the leaderboard
+ * and starts it again.
+ * <p>
+ * Events are placed by their {@code eventTimestamp}, the time the user changed the favorite, which
+ * movie-service writes in the local time of its zone. Both services run in the same zone.
+ */
+@Component
+@Endpoint(id = "trendingfavorites")
+@Slf4j
+public class TrendingFavoritesConsumer {
+
+    private static final String LISTENER_ID = "trendingFavorites";
+
+    private final TrendingLeaderboard leaderboard;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    public TrendingFavoritesConsumer(TrendingLeaderboard leaderboard, KafkaListenerEndpointRegistry listenerRegistry) {
+        this.leaderboard = leaderboard;
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    @KafkaListener(
+            id = LISTENER_ID,
+            topicPartitions = {
+                    @TopicPartition(topic = "${spring.kafka.topics.movie-favorite-added}",
+                            partitions = "${favorite.replay.partitions:0-2}",
+                            partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")),
+                    @TopicPartition(topic = "${spring.kafka.topics.movie-favorite-removed}",
+                            partitions = "${favorite.replay.partitions:0-2}",
+                            partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0"))
+            },
+            containerFactory = "replayKafkaListenerContainerFactory"
+    )
+    public void consume(@Payload Object event) {
+        if (event instanceof MovieFavoriteAddedEvent added) {
+            leaderboard.favoriteAdded(added.getUserId(), added.getMovieId(), millis(added.getEventTimestamp()));
+        } else if (event instanceof MovieFavoriteRemovedEvent removed) {
+            leaderboard.favoriteRemoved(removed.getUserId(), removed.getMovieId(), millis(removed.getEventTimestamp()));
+        }
+    }
+
+    @WriteOperation
+    public Map<String, String> rebuild() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            return Map.of("status", "no listener");
+        }
+        //stop() waits for the records being processed, so nothing is counted after the clear
+        container.stop();
+        leaderboard.clear();
+        container.start();
+        log.info("Trending favorites leaderboard cleared, replaying the favorite topics");
+        return Map.of("status", "replaying");
+    }
+
+    private static long millis(LocalDateTime eventTimestamp) {
+        return eventTimestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
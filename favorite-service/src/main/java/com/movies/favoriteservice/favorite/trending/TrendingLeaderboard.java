@@ -0,0 +1,213 @@
+package com.movies.favoriteservice.favorite.trending;
+
+import com.movies.events.CatalogMovie;
+import com.movies.favoriteservice.favorite.UserMovieId;
+import com.movies.favoriteservice.favorite.catalog.MovieCatalogView;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Favorite counts per movie for every {@link TrendingWindow}, updated one event at a time.
+ * <p>
+ * Each window keeps its counts in a map and in a set ordered by count, so an event costs a few
+ * O(log n) updates and the top N is read straight off the ordered set. Sliding windows also keep
+ * each bucket's changes; once a bucket falls out of its window they are subtracted again. Events are
+ * placed by their own timestamp, so a replay rebuilds the same windows as live consumption did.
+ * Titles and posters are looked up in the {@link MovieCatalogView} when the top N is read.
+ * <p>
+ * A movie is only counted when a user's favorite actually changes. The leaderboard keeps the latest
+ * change of each user and movie, so redelivered or repeated adds and removes of movies the user never
+ * favorited leave the counts alone. Changes are ordered by timestamp, with a remove winning a tie, the
+ * same way favorite-service writes them, since adds and removes arrive on separate topics.
+ * <p>
+ * Only the changes of the longest sliding window are remembered, so memory follows the favorites of the
+ * last week rather than all of them. Changes older than that before the latest one are ignored. Once
+ * older changes have been forgotten, a remove of an unknown favorite is taken to remove one added
+ * before, and counts.
+ */
+@Component
+public class TrendingLeaderboard {
+
+    private final Map<TrendingWindow, Ranking> rankings = new EnumMap<>(TrendingWindow.class);
+    private final Map<TrendingWindow, NavigableMap<Long, Map<Integer, Integer>>> buckets =
+            new EnumMap<>(TrendingWindow.class);
+    //In the order they last changed, so the oldest are forgotten first
+    private final LinkedHashMap<UserMovieId, Membership> memberships = new LinkedHashMap<>();
+    private final MovieCatalogView movieCatalogView;
+    private final long membershipRetentionMillis;
+    private long latestMillis = Long.MIN_VALUE;
+    private boolean forgotten;
+
+    public TrendingLeaderboard(MovieCatalogView movieCatalogView) {
+        this.movieCatalogView = movieCatalogView;
+        long longestWindow = 0;
+        for (TrendingWindow window : TrendingWindow.values()) {
+            rankings.put(window, new Ranking());
+            if (window.isSliding()) {
+                buckets.put(window, new TreeMap<>());
+                longestWindow = Math.max(longestWindow, window.getLength().toMillis());
+            }
+        }
+        this.membershipRetentionMillis = longestWindow;
+    }
+
+    public synchronized void favoriteAdded(String userId, Integer movieId, long timestampMillis) {
+        change(userId, movieId, true, timestampMillis);
+    }
+
+    public synchronized void favoriteRemoved(String userId, Integer movieId, long timestampMillis) {
+        change(userId, movieId, false, timestampMillis);
+    }
+
+    /**
+     * Returns the movies with the most net favorites over the window, leaving out movies whose
+     * count is not positive.
+     */
+    public synchronized List<TrendingMovie> top(TrendingWindow window, int limit, long nowMillis) {
+        if (window.isSliding()) {
+            expire(window, nowMillis);
+        }
+        List<TrendingMovie> top = new ArrayList<>(limit);
+        Iterator<Entry> entries = rankings.get(window).ordered.iterator();
+        while (top.size() < limit && entries.hasNext()) {
+            Entry entry = entries.next();
+            CatalogMovie movie = movieCatalogView.get(entry.movieId());
+            top.add(new TrendingMovie(entry.movieId(), movie == null ? null : movie.getTitle(),
+                    movie == null ? null : movie.getPosterPath(), entry.count()));
+        }
+        return top;
+    }
+
+    public synchronized void clear() {
+        rankings.values().forEach(Ranking::clear);
+        buckets.values().forEach(Map::clear);
+        memberships.clear();
+        latestMillis = Long.MIN_VALUE;
+        forgotten = false;
+    }
+
+    //How many changes are remembered
+    synchronized int memberships() {
+        return memberships.size();
+    }
+
+    //Counts the change only when it is the latest one and flips the favorite
+    private void change(String userId, Integer movieId, boolean favorite, long timestampMillis) {
+        latestMillis = Math.max(latestMillis, timestampMillis);
+        if (timestampMillis <= retainedFrom()) {
+            return;
+        }
+        UserMovieId key = new UserMovieId(userId, movieId);
+        Membership current = memberships.get(key);
+        if (current != null && (current.timestampMillis() > timestampMillis
+                || (current.timestampMillis() == timestampMillis && !current.favorite()))) {
+            return;
+        }
+        //Removed first, so the entry moves to the end
+        memberships.remove(key);
+        memberships.put(key, new Membership(favorite, timestampMillis));
+        boolean wasFavorite = current != null ? current.favorite() : !favorite && forgotten;
+        if (favorite != wasFavorite) {
+            record(movieId, favorite ? 1 : -1, timestampMillis);
+        }
+        forget();
+    }
+
+    //Changes arrive roughly in order, so this stops at the first one still retained
+    private void forget() {
+        Iterator<Membership> oldest = memberships.values().iterator();
+        while (oldest.hasNext()) {
+            if (oldest.next().timestampMillis() > retainedFrom()) {
+                return;
+            }
+            oldest.remove();
+            forgotten = true;
+        }
+    }
+
+    private long retainedFrom() {
+        return latestMillis - membershipRetentionMillis;
+    }
+
+    private void record(Integer movieId, int delta, long timestampMillis) {
+        rankings.get(TrendingWindow.ALL_TIME).add(movieId, delta);
+        for (Map.Entry<TrendingWindow, NavigableMap<Long, Map<Integer, Integer>>> sliding : buckets.entrySet()) {
+            TrendingWindow window = sliding.getKey();
+            long bucketMillis = window.getBucket().toMillis();
+            long bucketStart = timestampMillis - Math.floorMod(timestampMillis, bucketMillis);
+            //Too old for the window, it would be subtracted again right away
+            if (bucketStart + bucketMillis <= windowStart(window, Math.max(timestampMillis, latest(window)))) {
+                continue;
+            }
+            sliding.getValue().computeIfAbsent(bucketStart, start -> new HashMap<>()).merge(movieId, delta, Integer::sum);
+            rankings.get(window).add(movieId, delta);
+            expire(window, timestampMillis);
+        }
+    }
+
+    //Drops the buckets that ended before the window starts, taking their changes back out
+    private void expire(TrendingWindow window, long nowMillis) {
+        NavigableMap<Long, Map<Integer, Integer>> windowBuckets = buckets.get(window);
+        long bucketMillis = window.getBucket().toMillis();
+        Ranking ranking = rankings.get(window);
+        while (!windowBuckets.isEmpty() && windowBuckets.firstKey() + bucketMillis <= windowStart(window, nowMillis)) {
+            windowBuckets.pollFirstEntry().getValue().forEach((movieId, delta) -> ranking.add(movieId, -delta));
+        }
+    }
+
+    private long latest(TrendingWindow window) {
+        NavigableMap<Long, Map<Integer, Integer>> windowBuckets = buckets.get(window);
+        return windowBuckets.isEmpty() ? Long.MIN_VALUE : windowBuckets.lastKey();
+    }
+
+    private static long windowStart(TrendingWindow window, long nowMillis) {
+        return nowMillis - window.getLength().toMillis();
+    }
+
+    private static final class Ranking {
+
+        private static final Comparator<Entry> BY_COUNT =
+                Comparator.comparingLong(Entry::count).reversed().thenComparingInt(Entry::movieId);
+
+        private final Map<Integer, Long> counts = new HashMap<>();
+        private final TreeSet<Entry> ordered = new TreeSet<>(BY_COUNT);
+
+        private void add(Integer movieId, int delta) {
+            Long previous = counts.get(movieId);
+            long count = (previous == null ? 0 : previous) + delta;
+            if (previous != null && previous > 0) {
+                ordered.remove(new Entry(movieId, previous));
+            }
+            if (count == 0) {
+                counts.remove(movieId);
+            } else {
+                counts.put(movieId, count);
+            }
+            if (count > 0) {
+                ordered.add(new Entry(movieId, count));
+            }
+        }
+
+        private void clear() {
+            counts.clear();
+            ordered.clear();
+        }
+    }
+
+    private record Entry(int movieId, long count) {
+    }
+
+    private record Membership(boolean favorite, long timestampMillis) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.movies.favoriteservice.favorite.trending;
+
+/**
+ * A movie on the leaderboard with its net favorites over the requested window: favorites added
+ * minus favorites removed in that window.
+ */
+public record TrendingMovie(Integer movieId, String title, String posterPath, long favorites) {
+}
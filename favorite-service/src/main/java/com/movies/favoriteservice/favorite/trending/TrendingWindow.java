@@ -0,0 +1,27 @@
+package com.movies.favoriteservice.favorite.trending;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * The periods favorites are counted over. Sliding windows are kept as buckets of {@code bucket}
+ * length, so a window moves forward one bucket at a time.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TrendingWindow {
+
+    HOUR(Duration.ofHours(1), Duration.ofMinutes(1)),
+    DAY(Duration.ofDays(1), Duration.ofHours(1)),
+    WEEK(Duration.ofDays(7), Duration.ofHours(1)),
+    ALL_TIME(null, null);
+
+    private final Duration length;
+    private final Duration bucket;
+
+    public boolean isSliding() {
+        return length != null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.movies.favoriteservice.favorite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FavoriteBatchWriter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class FavoriteBatchWriterTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2026, 10, 17, 12, 0);
+    private static final LocalDateTime SECOND = FIRST.plusSeconds(1);
+    private static final LocalDateTime THIRD = FIRST.plusSeconds(2);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17-alpine"));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private FavoriteBatchWriter favoriteBatchWriter;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("truncate favorites, favorite_removals");
+    }
+
+    @Test
+    @DisplayName("Should skip changes that arrive in a later poll than a newer change of the same favorite")
+    void shouldKeepLatestChangeAcrossPolls() {
+        UserMovieId favorite = new UserMovieId("user-1", 42);
+
+        //Removed at SECOND, then the add from FIRST arrives late on the other topic
+        assertEquals(List.of(), favoriteBatchWriter.delete(List.of(removal(SECOND))));
+        assertEquals(List.of(), favoriteBatchWriter.insert(List.of(addition(FIRST))));
+        assertFalse(favoriteRepository.existsByUserIdAndMovieId("user-1", 42));
+
+        //Added again at THIRD, then a stale remove from SECOND is delivered again
+        assertEquals(List.of(favorite), favoriteBatchWriter.insert(List.of(addition(THIRD))));
+        assertEquals(List.of(), favoriteBatchWriter.delete(List.of(removal(SECOND))));
+        assertTrue(favoriteRepository.existsByUserIdAndMovieId("user-1", 42));
+
+        //A newer remove deletes it and replaces the recorded removal
+        assertEquals(List.of(favorite), favoriteBatchWriter.delete(List.of(removal(THIRD.plusSeconds(1)))));
+        assertFalse(favoriteRepository.existsByUserIdAndMovieId("user-1", 42));
+        assertEquals(0, favoriteBatchWriter.purgeRemovals(THIRD));
+        assertEquals(1, favoriteBatchWriter.purgeRemovals(THIRD.plusSeconds(2)));
+    }
+
+    @Test
+    @DisplayName("Should keep a favorite added again after a remove that arrives late")
+    void shouldKeepLatestAddAgainstLateRemove() {
+        UserMovieId favorite = new UserMovieId("user-1", 42);
+
+        //Added at FIRST and again at THIRD, then the remove from SECOND arrives late on the other topic
+        assertEquals(List.of(favorite), favoriteBatchWriter.insert(List.of(addition(FIRST))));
+        assertEquals(List.of(favorite), favoriteBatchWriter.insert(List.of(addition(THIRD))));
+        assertEquals(List.of(), favoriteBatchWriter.insert(List.of(addition(THIRD))));
+        assertEquals(List.of(), favoriteBatchWriter.delete(List.of(removal(SECOND))));
+        assertTrue(favoriteRepository.existsByUserIdAndMovieId("user-1", 42));
+    }
+
+    private static FavoriteChanges.Addition addition(LocalDateTime createdAt) {
+        return new FavoriteChanges.Addition("user-1", 42, createdAt);
+    }
+
+    private static FavoriteChanges.Removal removal(LocalDateTime removedAt) {
+        return new FavoriteChanges.Removal("user-1", 42, removedAt);
+    }
+}
@@ -0,0 +1,54 @@
+package com.movies.favoriteservice.favorite;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FavoriteChangesTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2026, 10, 17, 12, 0);
+    private static final LocalDateTime SECOND = FIRST.plusSeconds(1);
+    private static final LocalDateTime THIRD = FIRST.plusSeconds(2);
+
+    @Test
+    @DisplayName("Should keep only the latest change of each user and movie by event time")
+    void shouldCollapseToLatestChange() {
+        FavoriteChanges changes = new FavoriteChanges();
+        changes.added("user-1", 1, FIRST);
+        changes.removed("user-1", 1, SECOND);
+        changes.added("user-1", 1, THIRD);
+        changes.added("user-1", 2, FIRST);
+        changes.removed("user-1", 2, SECOND);
+        changes.removed("user-2", 3, FIRST);
+
+        assertEquals(6, changes.received());
+        assertEquals(3, changes.size());
+        assertEquals(List.of(new FavoriteChanges.Addition("user-1", 1, THIRD)), changes.additions());
+        assertEquals(List.of(
+                new FavoriteChanges.Removal("user-1", 2, SECOND),
+                new FavoriteChanges.Removal("user-2", 3, FIRST)), changes.removals());
+    }
+
+    @Test
+    @DisplayName("Should order changes by event time rather than arrival, with removes winning ties")
+    void shouldIgnoreArrivalOrder() {
+        FavoriteChanges changes = new FavoriteChanges();
+        //The removed topic was read before the added one
+        changes.removed("user-1", 1, SECOND);
+        changes.added("user-1", 1, FIRST);
+        changes.added("user-1", 2, THIRD);
+        changes.removed("user-1", 2, SECOND);
+        changes.added("user-1", 3, FIRST);
+        changes.removed("user-1", 3, FIRST);
+        changes.added("user-1", 3, FIRST);
+
+        assertEquals(List.of(new FavoriteChanges.Addition("user-1", 2, THIRD)), changes.additions());
+        assertEquals(List.of(
+                new FavoriteChanges.Removal("user-1", 1, SECOND),
+                new FavoriteChanges.Removal("user-1", 3, FIRST)), changes.removals());
+    }
+}
@@ -0,0 +1,174 @@
+package com.movies.favoriteservice.favorite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of writing favorite events into Postgres, once the way they were written before the batch
+ * listener, an existence check and a save or a derived delete in one transaction per event, and once a
+ * poll at a time through {@link FavoriteChanges} and the {@link FavoriteBatchWriter}. Reports events per
+ * second; both paths have to leave the same favorites behind.
+ */
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FavoriteBatchWriter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class FavoriteWriteThroughputTest {
+
+    private static final int EVENTS = 20_000;
+    private static final int USERS = 1_000;
+    private static final int MOVIES = 200;
+    //max.poll.records of the batch listener
+    private static final int POLL_SIZE = 500;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17-alpine"));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private FavoriteBatchWriter favoriteBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("truncate favorites, favorite_removals");
+    }
+
+    @Test
+    void shouldWriteFasterInBatches() {
+        List<Event> events = events(new Random(42));
+        Set<UserMovieId> expected = expected(events);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        //Warm up the connection pool, statements and the JIT on both paths before measuring
+        writePerEvent(transaction, events.subList(0, EVENTS / 10));
+        clear();
+        writeBatches(transaction, events.subList(0, EVENTS / 10));
+        clear();
+
+        long started = System.nanoTime();
+        writePerEvent(transaction, events);
+        double perEvent = EVENTS / ((System.nanoTime() - started) / 1e9);
+        assertEquals(expected, favorites());
+        clear();
+
+        started = System.nanoTime();
+        writeBatches(transaction, events);
+        double batched = EVENTS / ((System.nanoTime() - started) / 1e9);
+        assertEquals(expected, favorites());
+
+        System.out.printf("Favorite writes: per event %.0f/s, batched %.0f/s (%.1fx)%n",
+                perEvent, batched, batched / perEvent);
+    }
+
+    //One transaction per event through the repository
+    private void writePerEvent(TransactionTemplate transaction, List<Event> events) {
+        for (Event event : events) {
+            try {
+                transaction.executeWithoutResult(status -> {
+                    if (event.added()) {
+                        favoriteRepository.existsByUserIdAndMovieId(event.userId(), event.movieId());
+                        favoriteRepository.save(FavoriteMovie.builder()
+                                .userId(event.userId())
+                                .movieId(event.movieId())
+                                .createdAt(event.timestamp())
+                                .build());
+                    } else {
+                        favoriteRepository.deleteByUserIdAndMovieId(event.userId(), event.movieId());
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                //Duplicates fail on the unique constraint and are dropped by the listener
+            }
+        }
+    }
+
+    private void writeBatches(TransactionTemplate transaction, List<Event> events) {
+        for (int first = 0; first < events.size(); first += POLL_SIZE) {
+            FavoriteChanges changes = new FavoriteChanges();
+            for (Event event : events.subList(first, Math.min(first + POLL_SIZE, events.size()))) {
+                if (event.added()) {
+                    changes.added(event.userId(), event.movieId(), event.timestamp());
+                } else {
+                    changes.removed(event.userId(), event.movieId(), event.timestamp());
+                }
+            }
+            transaction.executeWithoutResult(status -> {
+                favoriteBatchWriter.insert(changes.additions());
+                favoriteBatchWriter.delete(changes.removals());
+            });
+        }
+    }
+
+    private Set<UserMovieId> favorites() {
+        return new HashSet<>(jdbcTemplate.query("select user_id, movie_id from favorites",
+                (row, i) -> new UserMovieId(row.getString("user_id"), row.getInt("movie_id"))));
+    }
+
+    //Mostly adds, with a removal for roughly every fifth event and some repeated adds
+    private static List<Event> events(Random random) {
+        LocalDateTime timestamp = LocalDateTime.of(2026, 10, 17, 12, 0);
+        List<Event> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(new Event("user-" + random.nextInt(USERS), random.nextInt(MOVIES),
+                    random.nextInt(5) != 0, timestamp.plusNanos(i * 1_000_000L)));
+        }
+        return events;
+    }
+
+    private static Set<UserMovieId> expected(List<Event> events) {
+        Set<UserMovieId> favorites = new HashSet<>();
+        for (Event event : events) {
+            UserMovieId favorite = new UserMovieId(event.userId(), event.movieId());
+            if (event.added()) {
+                favorites.add(favorite);
+            } else {
+                favorites.remove(favorite);
+            }
+        }
+        return favorites;
+    }
+
+    private record Event(String userId, Integer movieId, boolean added, LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.movies.favoriteservice.favorite.event;
+
+import com.movies.events.CatalogMovie;
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FavoriteEventDeserializerTest {
+
+    private static final String TOPIC = "movie-favorite-added";
+    private static final LocalDateTime PUBLISHED = LocalDateTime.of(2026, 10, 17, 12, 0);
+    //PUBLISHED as local-timestamp-millis
+    private static final long PUBLISHED_MILLIS = 1_792_238_400_000L;
+
+    private final FavoriteEventSchemas schemas = FavoriteEventSchemas.load();
+    private final List<CatalogMovie> movies = new ArrayList<>();
+    private final FavoriteEventDeserializer deserializer = new FavoriteEventDeserializer(schemas, movies::add);
+
+    @Test
+    @DisplayName("Should read events and catalog movies in Avro's single-object encoding without a type header")
+    void shouldReadCurrentSchemas() throws Exception {
+        MovieFavoriteAddedEvent added = MovieFavoriteAddedEvent.newBuilder()
+                .setUserId("user-1")
+                .setMovieId(42)
+                .setEventTimestamp(PUBLISHED)
+                .setEventId("event-1")
+                .build();
+        MovieFavoriteRemovedEvent removed = MovieFavoriteRemovedEvent.newBuilder()
+                .setUserId("user-1")
+                .setMovieId(42)
+                .setEventTimestamp(PUBLISHED)
+                .setEventId("event-2")
+                .build();
+        CatalogMovie movie = CatalogMovie.newBuilder()
+                .setId(42)
+                .setTitle("Movie")
+                .setReleaseDate(LocalDate.of(2026, 11, 1))
+                .setGenreIds(List.of(28, 12))
+                .build();
+
+        assertEquals(added, deserializer.deserialize(TOPIC, new RecordHeaders(), bytes(added.toByteBuffer())));
+        assertEquals(removed, deserializer.deserialize(TOPIC, new RecordHeaders(), bytes(removed.toByteBuffer())));
+        assertEquals(movie, deserializer.deserialize("movie-catalog", new RecordHeaders(), bytes(movie.toByteBuffer())));
+        assertNull(deserializer.deserialize("movie-catalog", new RecordHeaders(), (byte[]) null));
+        assertEquals(List.of(), movies);
+    }
+
+    @Test
+    @DisplayName("Should read events written with a superseded schema from the history directory")
+    void shouldReadHistorySchema() throws IOException {
+        Schema v1 = schema("favorite-events/history/MovieFavoriteAddedEvent.v1.avsc");
+        GenericRecord record = new GenericData.Record(v1);
+        record.put("userId", "user-1");
+        record.put("movieId", 42);
+        record.put("title", "Movie");
+        record.put("popularity", 12.5);
+        record.put("voteAverage", 7.5);
+        record.put("voteCount", 100);
+        record.put("genreIds", List.of(28));
+        record.put("adult", false);
+        record.put("video", false);
+        record.put("eventTimestamp", PUBLISHED_MILLIS);
+        record.put("eventId", "event-1");
+
+        MovieFavoriteAddedEvent event = (MovieFavoriteAddedEvent) deserializer
+                .deserialize(TOPIC, new RecordHeaders(), encode(v1, record));
+
+        //The movie fields of the first version are handed over as a catalog movie
+        assertEquals(MovieFavoriteAddedEvent.newBuilder()
+                .setUserId("user-1")
+                .setMovieId(42)
+                .setEventTimestamp(PUBLISHED)
+                .setEventId("event-1")
+                .build(), event);
+        assertEquals(List.of(CatalogMovie.newBuilder()
+                .setId(42)
+                .setTitle("Movie")
+                .setPopularity(12.5)
+                .setVoteAverage(7.5)
+                .setVoteCount(100)
+                .setGenreIds(List.of(28))
+                .build()), movies);
+    }
+
+    @Test
+    @DisplayName("Should refuse records whose schema is not registered")
+    void shouldRefuseUnknownSchema() {
+        Schema unknown = new Schema.Parser().parse("""
+                {"type": "record", "name": "MovieFavoriteAddedEvent", "namespace": "com.movies.events", "fields": [
+                  {"name": "userId", "type": "string"},
+                  {"name": "movieId", "type": "int"},
+                  {"name": "eventTimestamp", "type": {"type": "long", "logicalType": "local-timestamp-millis"}},
+                  {"name": "eventId", "type": "string"},
+                  {"name": "source", "type": "string", "default": "web"}
+                ]}
+                """);
+        GenericRecord record = new GenericData.Record(unknown);
+        record.put("userId", "user-1");
+        record.put("movieId", 42);
+        record.put("eventTimestamp", PUBLISHED_MILLIS);
+        record.put("eventId", "event-1");
+        record.put("source", "web");
+        byte[] data = encode(unknown, record);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, new RecordHeaders(), data));
+
+        schemas.add(unknown);
+        assertEquals(42, ((MovieFavoriteAddedEvent) new FavoriteEventDeserializer(schemas)
+                .deserialize(TOPIC, new RecordHeaders(), data)).getMovieId());
+    }
+
+    @Test
+    @DisplayName("Should still read JSON events published before the schemas by their type header")
+    void shouldReadLegacyJson() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("__TypeId__", "movieFavoriteAdded".getBytes(StandardCharsets.UTF_8));
+        byte[] json = """
+                {"userId":"user-1","movieId":42,"title":"Movie","releaseDate":[2026,11,1],"popularity":12.5,
+                 "genreIds":[28],"adult":false,"eventTimestamp":[2026,10,17,12,0],"eventId":"event-1"}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        MovieFavoriteAddedEvent event = (MovieFavoriteAddedEvent) deserializer.deserialize(TOPIC, headers, json);
+
+        assertEquals("user-1", event.getUserId());
+        assertEquals(42, event.getMovieId());
+        assertEquals(PUBLISHED, event.getEventTimestamp());
+        assertEquals("event-1", event.getEventId());
+        assertEquals(List.of(CatalogMovie.newBuilder()
+                .setId(42)
+                .setTitle("Movie")
+                .setReleaseDate(LocalDate.of(2026, 11, 1))
+                .setPopularity(12.5)
+                .setGenreIds(List.of(28))
+                .build()), movies);
+    }
+
+    private static Schema schema(String path) throws IOException {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return new Schema.Parser().parse(in);
+        }
+    }
+
+    private static byte[] encode(Schema schema, GenericRecord record) {
+        try {
+            return bytes(new BinaryMessageEncoder<GenericRecord>(GenericData.get(), schema).encode(record));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,123 @@
+package com.movies.favoriteservice.favorite.trending;
+
+import com.movies.events.CatalogMovie;
+import com.movies.favoriteservice.favorite.catalog.MovieCatalogView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingLeaderboardTest {
+
+    private static final long NOW = Instant.parse("2026-10-17T12:00:00Z").toEpochMilli();
+
+    private final MovieCatalogView catalog = new MovieCatalogView(new SimpleMeterRegistry());
+    private final TrendingLeaderboard leaderboard = new TrendingLeaderboard(catalog);
+
+    @Test
+    @DisplayName("Should rank net favorites per window and let old events slide out")
+    void shouldRankPerWindow() {
+        add(1, ago(Duration.ofDays(30)), 5);
+        add(2, ago(Duration.ofDays(3)), 3);
+        add(3, ago(Duration.ofHours(5)), 2);
+        add(4, ago(Duration.ofMinutes(10)), 1);
+        leaderboard.favoriteRemoved("user-0", 1, ago(Duration.ofMinutes(5)));
+
+        assertEquals(List.of(1, 2, 3, 4), ids(TrendingWindow.ALL_TIME));
+        assertEquals(4, leaderboard.top(TrendingWindow.ALL_TIME, 1, NOW).get(0).favorites());
+        assertEquals(List.of(2, 3, 4), ids(TrendingWindow.WEEK));
+        assertEquals(List.of(3, 4), ids(TrendingWindow.DAY));
+        assertEquals(List.of(4), ids(TrendingWindow.HOUR));
+
+        //Two hours later the last hour is empty and the day still holds both
+        assertEquals(List.of(), leaderboard.top(TrendingWindow.HOUR, 10, NOW + Duration.ofHours(2).toMillis()));
+        assertEquals(2, leaderboard.top(TrendingWindow.DAY, 10, NOW + Duration.ofHours(2).toMillis()).size());
+    }
+
+    @Test
+    @DisplayName("Should read titles from the catalog and rebuild the same ranking after a clear and replay")
+    void shouldReplayToTheSameRanking() {
+        catalog.put(CatalogMovie.newBuilder().setId(7).setTitle("Movie 7").setPosterPath("/7.jpg").build());
+        catalog.put(CatalogMovie.newBuilder().setId(8).setTitle("Movie 8").setPosterPath("/8.jpg").build());
+        Runnable events = () -> {
+            add(7, ago(Duration.ofMinutes(30)), 2);
+            add(8, ago(Duration.ofMinutes(20)), 3);
+            leaderboard.favoriteRemoved("user-0", 8, ago(Duration.ofMinutes(10)));
+            leaderboard.favoriteRemoved("user-1", 8, ago(Duration.ofMinutes(9)));
+        };
+        events.run();
+        List<TrendingMovie> live = leaderboard.top(TrendingWindow.HOUR, 10, NOW);
+
+        leaderboard.clear();
+        assertEquals(List.of(), leaderboard.top(TrendingWindow.ALL_TIME, 10, NOW));
+        events.run();
+
+        assertEquals(live, leaderboard.top(TrendingWindow.HOUR, 10, NOW));
+        assertEquals(List.of(new TrendingMovie(7, "Movie 7", "/7.jpg", 2), new TrendingMovie(8, "Movie 8", "/8.jpg", 1)),
+                live);
+    }
+
+    @Test
+    @DisplayName("Should only count changes that flip a user's favorite, whatever order they arrive in")
+    void shouldCountMembershipChanges() {
+        leaderboard.favoriteAdded("user-1", 5, ago(Duration.ofMinutes(30)));
+        leaderboard.favoriteAdded("user-1", 5, ago(Duration.ofMinutes(30)));
+        leaderboard.favoriteAdded("user-1", 5, ago(Duration.ofMinutes(20)));
+        leaderboard.favoriteRemoved("user-2", 5, ago(Duration.ofMinutes(20)));
+        assertEquals(1, leaderboard.top(TrendingWindow.HOUR, 1, NOW).get(0).favorites());
+
+        //A remove that arrives before the older add of the same user leaves nothing behind
+        leaderboard.favoriteRemoved("user-3", 6, ago(Duration.ofMinutes(10)));
+        leaderboard.favoriteAdded("user-3", 6, ago(Duration.ofMinutes(15)));
+        //A remove wins over an add of the same instant
+        leaderboard.favoriteAdded("user-4", 6, ago(Duration.ofMinutes(5)));
+        leaderboard.favoriteRemoved("user-4", 6, ago(Duration.ofMinutes(5)));
+        leaderboard.favoriteAdded("user-4", 6, ago(Duration.ofMinutes(5)));
+
+        assertEquals(List.of(5), ids(TrendingWindow.ALL_TIME));
+        leaderboard.favoriteRemoved("user-1", 5, ago(Duration.ofMinutes(1)));
+        leaderboard.favoriteRemoved("user-1", 5, ago(Duration.ofMinutes(1)));
+        assertEquals(List.of(), ids(TrendingWindow.ALL_TIME));
+    }
+
+    @Test
+    @DisplayName("Should only remember the changes of the longest window and count removes of forgotten favorites")
+    void shouldForgetOldChanges() {
+        leaderboard.favoriteAdded("user-1", 9, ago(Duration.ofDays(10)));
+        leaderboard.favoriteAdded("user-2", 9, ago(Duration.ofDays(10)));
+        assertEquals(2, leaderboard.memberships());
+
+        //A week after them both are forgotten, and a change from before that is ignored
+        leaderboard.favoriteAdded("user-3", 10, ago(Duration.ofHours(1)));
+        assertEquals(1, leaderboard.memberships());
+        leaderboard.favoriteAdded("user-1", 9, ago(Duration.ofDays(9)));
+
+        //The remove takes back a favorite that was forgotten, and only once
+        leaderboard.favoriteRemoved("user-2", 9, ago(Duration.ofMinutes(30)));
+        leaderboard.favoriteRemoved("user-2", 9, ago(Duration.ofMinutes(20)));
+
+        assertEquals(List.of(new TrendingMovie(9, null, null, 1), new TrendingMovie(10, null, null, 1)),
+                leaderboard.top(TrendingWindow.ALL_TIME, 10, NOW));
+        assertEquals(List.of(10), ids(TrendingWindow.HOUR));
+    }
+
+    //Each time is a different user favoriting the movie
+    private void add(int movieId, long timestamp, int times) {
+        for (int i = 0; i < times; i++) {
+            leaderboard.favoriteAdded("user-" + i, movieId, timestamp);
+        }
+    }
+
+    private List<Integer> ids(TrendingWindow window) {
+        return leaderboard.top(window, 10, NOW).stream().map(TrendingMovie::movieId).toList();
+    }
+
+    private static long ago(Duration duration) {
+        return NOW - duration.toMillis();
+    }
+}
@@ -1,11 +1,16 @@
 package com.movies.movieserver;
 
+import com.movies.shared.VirtualThreadPinningMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import(VirtualThreadPinningMonitor.class)
 @EnableFeignClients
+@EnableScheduling
 //@EnableCaching
 public class MovieServiceApplication {
 
@@ -0,0 +1,92 @@
+package com.movies.movieserver.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.GzipSource;
+import okio.InflaterSource;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.Inflater;
+
+/**
+ * Asks for gzip or deflate and decodes the response body while it is read, so the whole compressed
+ * payload is never buffered. Bytes received and bytes handed to Feign are counted per host.
+ * <p>
+ * Requests that already carry an {@code Accept-Encoding} header are left alone.
+ */
+class CompressionInterceptor implements Interceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    CompressionInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header("Accept-Encoding") != null) {
+            return chain.proceed(request);
+        }
+        Response response = chain.proceed(request.newBuilder()
+                .header("Accept-Encoding", "gzip, deflate")
+                .build());
+        ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+
+        String host = request.url().host();
+        Source received = new CountingSource(body.source(), bytes(host, "received"));
+        String encoding = response.header("Content-Encoding", "identity").toLowerCase(Locale.ROOT);
+        Source decoded = switch (encoding) {
+            case "gzip" -> new GzipSource(received);
+            case "deflate" -> new InflaterSource(received, new Inflater());
+            default -> received;
+        };
+
+        return response.newBuilder()
+                .removeHeader("Content-Encoding")
+                .removeHeader("Content-Length")
+                .body(ResponseBody.create(Okio.buffer(new CountingSource(decoded, bytes(host, "decoded"))),
+                        body.contentType(), -1L))
+                .build();
+    }
+
+    private Counter bytes(String host, String stage) {
+        return Counter.builder("movie.api.http.response.bytes")
+                .description("Movie API response body bytes as received and after decoding")
+                .baseUnit("bytes")
+                .tag("host", host)
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private static final class CountingSource extends ForwardingSource {
+
+        private final Counter counter;
+
+        CountingSource(Source delegate, Counter counter) {
+            super(delegate);
+            this.counter = counter;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                counter.increment(read);
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.movies.movieserver.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+/**
+ * Counts movie API calls and the connections opened for them, per host. The share of calls that did
+ * not open a connection is the pool's reuse rate.
+ */
+class ConnectionMetricsListener extends EventListener {
+
+    private final MeterRegistry meterRegistry;
+
+    ConnectionMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        Counter.builder("movie.api.http.calls")
+                .description("Calls sent to the movie API")
+                .tag("host", call.request().url().host())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        Counter.builder("movie.api.http.connections.opened")
+                .description("Connections opened to the movie API instead of reusing a pooled one")
+                .tag("host", call.request().url().host())
+                .register(meterRegistry)
+                .increment();
+    }
+}
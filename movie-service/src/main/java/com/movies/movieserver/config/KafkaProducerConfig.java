@@ -0,0 +1,19 @@
+package com.movies.movieserver.config;
+
+import com.movies.movieserver.movie.event.FavoriteEventSerializer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    //Only the value serializer is replaced, every other producer setting still comes from spring.kafka.producer
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer favoriteEventSerializerCustomizer() {
+        return producerFactory -> ((DefaultKafkaProducerFactory<Object, Object>) producerFactory)
+                .setValueSerializer(new FavoriteEventSerializer());
+    }
+}
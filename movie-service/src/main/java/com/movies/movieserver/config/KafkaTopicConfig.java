@@ -15,6 +15,9 @@ public class KafkaTopicConfig {
     @Value("${spring.kafka.topics.movie-favorite-removed}")
     private String movieFavoriteRemovedTopic;
 
+    @Value("${spring.kafka.topics.movie-catalog:movie-catalog}")
+    private String movieCatalogTopic;
+
     @Bean
     public NewTopic movieFavoriteAddedTopic(){
         return TopicBuilder.name(movieFavoriteAddedTopic)
@@ -23,6 +26,8 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    //Same partition count as the added topic: favorite-service reads partition N of both on one consumer,
+    //which keeps each user's adds and removes on one thread
     @Bean
     public NewTopic movieFavoriteRemovedTopic(){
         return TopicBuilder.name(movieFavoriteRemovedTopic)
@@ -30,4 +35,14 @@ public class KafkaTopicConfig {
                 .replicas(1)
                 .build();
     }
+
+    //Compacted: only the latest record of each movie is kept, so a consumer can rebuild the catalog by replay
+    @Bean
+    public NewTopic movieCatalogTopic(){
+        return TopicBuilder.name(movieCatalogTopic)
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .build();
+    }
 }
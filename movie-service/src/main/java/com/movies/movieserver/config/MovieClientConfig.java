@@ -0,0 +1,75 @@
+package com.movies.movieserver.config;
+
+import feign.Client;
+import feign.Request;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport for the TMDB {@code MovieClient}: a pooled OkHttp client that keeps connections alive,
+ * negotiates HTTP/2 over TLS and accepts gzip or deflate responses, decoding them as they stream in.
+ * <p>
+ * Pool size, keep-alive and timeouts are set with {@code movie.api.http.*}. Pool occupancy, calls,
+ * newly opened connections and response bytes before and after decoding are published per host.
+ */
+@Configuration
+public class MovieClientConfig {
+
+    @Bean
+    public OkHttpClient movieApiHttpClient(
+            MeterRegistry meterRegistry,
+            @Value("${movie.api.url:https://api.themoviedb.org/3}") String apiUrl,
+            @Value("${movie.api.http.max-idle-connections:20}") int maxIdleConnections,
+            @Value("${movie.api.http.keep-alive:5m}") Duration keepAlive,
+            @Value("${movie.api.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${movie.api.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${movie.api.http.call-timeout:15s}") Duration callTimeout) {
+        ConnectionPool pool = new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+
+        String host = URI.create(apiUrl).getHost();
+        Gauge.builder("movie.api.http.pool.connections", pool, ConnectionPool::idleConnectionCount)
+                .description("Pooled connections to the movie API")
+                .tag("host", host)
+                .tag("state", "idle")
+                .register(meterRegistry);
+        Gauge.builder("movie.api.http.pool.connections", pool,
+                        p -> p.connectionCount() - p.idleConnectionCount())
+                .description("Pooled connections to the movie API")
+                .tag("host", host)
+                .tag("state", "active")
+                .register(meterRegistry);
+
+        return new OkHttpClient.Builder()
+                .connectionPool(pool)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(readTimeout)
+                .callTimeout(callTimeout)
+                .retryOnConnectionFailure(true)
+                .addInterceptor(new CompressionInterceptor(meterRegistry))
+                .eventListenerFactory(call -> new ConnectionMetricsListener(meterRegistry))
+                .build();
+    }
+
+    @Bean
+    public Client feignClient(OkHttpClient movieApiHttpClient) {
+        return new feign.okhttp.OkHttpClient(movieApiHttpClient);
+    }
+
+    //Feign passes its own timeouts on every request, so they must match the transport's
+    @Bean
+    public Request.Options feignRequestOptions(
+            @Value("${movie.api.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${movie.api.http.read-timeout:5s}") Duration readTimeout) {
+        return new Request.Options(connectTimeout, readTimeout, true);
+    }
+}
@@ -0,0 +1,23 @@
+package com.movies.movieserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class MovieFetchConfig {
+
+    //Bounds how many missing pages of a batch request are fetched from TMDB at once.
+    //In virtual thread mode the Feign calls run on virtual threads but the bound stays.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService movieFetchExecutor(@Value("${movie.fetch.parallelism:4}") int parallelism,
+                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().name("movie-fetch-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(parallelism);
+    }
+}
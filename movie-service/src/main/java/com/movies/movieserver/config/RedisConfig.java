@@ -1,11 +1,19 @@
 package com.movies.movieserver.config;
 
 import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.cache.MoviePageCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -19,4 +27,25 @@ public class RedisConfig {
         template.setValueSerializer(new Jackson2JsonRedisSerializer<>(Movie.class));
         return template;
     }
+
+    //Raw values for the reactive page cache, which shares the key layout and encodings of the blocking one
+    @Bean
+    @Profile("reactive")
+    public ReactiveRedisTemplate<String, byte[]> movieReactiveRedisTemplate(ReactiveRedisConnectionFactory factory) {
+        RedisSerializationContext<String, byte[]> context = RedisSerializationContext
+                .<String, byte[]>newSerializationContext(new StringRedisSerializer())
+                .value(RedisSerializer.byteArray())
+                .build();
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+    //Keeps the local page caches of all replicas coherent
+    @Bean
+    public RedisMessageListenerContainer movieCacheListenerContainer(RedisConnectionFactory factory,
+                                                                     MoviePageCache moviePageCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(moviePageCache, new ChannelTopic(moviePageCache.getInvalidationChannel()));
+        return container;
+    }
 }
@@ -23,7 +23,12 @@ public class SecurityConfig {
                                 "/webjars/**",
                                 //! Allow unauthenticated access to the nowPlaying endpoint
                                 "/nowPlaying",
-                                "/upcomingMovies"
+                                "/upcomingMovies",
+                                "/nowPlaying/batch",
+                                "/upcomingMovies/batch",
+                                "/nowPlaying/top",
+                                "/upcomingMovies/top",
+                                "/search"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -19,4 +19,10 @@ public record Movie(
         boolean video,
         //Newly added.
         boolean isFavorite) {
+
+    //Copy for a personalized page, cached movies are shared between users and never changed
+    public Movie asFavorite() {
+        return isFavorite ? this : new Movie(id, title, original_title, overview, release_date, poster_path,
+                backdrop_path, popularity, vote_average, vote_count, genre_ids, original_language, adult, video, true);
+    }
 }
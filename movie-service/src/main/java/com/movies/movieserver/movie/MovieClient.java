@@ -3,6 +3,7 @@ package com.movies.movieserver.movie;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -28,4 +29,11 @@ public interface MovieClient {
             @RequestParam("page") int page,
             @RequestParam("region") String region
     );
+
+    @GetMapping("/movie/{movieId}")
+    MovieDetails getMovie(
+            @RequestHeader("Authorization") String bearerToken,
+            @PathVariable("movieId") int movieId,
+            @RequestParam("language") String language
+    );
 }
@@ -1,18 +1,29 @@
 package com.movies.movieserver.movie;
 
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import com.movies.movieserver.movie.event.MovieCatalogPublisher;
 import com.movies.movieserver.movie.event.MovieEventProducer;
-import com.movies.movieserver.movie.event.MovieFavoriteAddedEvent;
-import com.movies.movieserver.movie.event.MovieFavoriteRemovedEvent;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,63 +31,121 @@ public class MovieController {
 
     private final MovieService movieService;
     private final MovieEventProducer eventProducer;
+    private final MovieCatalogPublisher movieCatalogPublisher;
 
-    @GetMapping("/upcomingMovies")
-    @Operation(summary = "Get upcoming movies"
-            //,security = { @SecurityRequirement(name = "bearerAuth") }
-            )
-    public List<Movie> getUpcomingMovies(
-            //@AuthenticationPrincipal Jwt jwt,
-            @RequestParam(required = false, defaultValue = "1") int pageNumber) {
-        //System.out.println("User name: " + jwt.getClaim("preferred_username"));
-        //System.out.println("User ID: " + jwt.getClaim("sub"));
-        return movieService.fetchUpcomingMovies(pageNumber);
+    @Value("${movie.batch.max-pages:20}")
+    private int maxBatchPages;
+
+    @Value("${movie.favorites.batch.max-size:500}")
+    private int maxBatchFavorites;
+
+    @Value("${movie.favorites.batch.timeout:10s}")
+    private Duration batchFavoritesTimeout;
+
+    @GetMapping("/upcomingMovies/batch")
+    @Operation(summary = "Get several pages of upcoming movies, e.g. pages=1-5 or pages=1,3,7")
+    public Map<Integer, List<Movie>> getUpcomingMoviePages(@RequestParam String pages) {
+        return movieService.fetchUpcomingMovies(parsePages(pages));
     }
 
-    @GetMapping("/nowPlaying")
-    public List<Movie> getNowPlayingMovies(
-            @RequestParam(required = false, defaultValue = "1") int pageNumber
-    ){
-        return movieService.getNowPlayingMovies(pageNumber);
+    @GetMapping("/nowPlaying/batch")
+    @Operation(summary = "Get several pages of now playing movies, e.g. pages=1-5 or pages=1,3,7")
+    public Map<Integer, List<Movie>> getNowPlayingMoviePages(@RequestParam String pages) {
+        return movieService.getNowPlayingMovies(parsePages(pages));
     }
 
     @PostMapping("/{movieId}/favorite")
     public ResponseEntity<String> addToFavorites(
             @PathVariable Integer movieId,
             @AuthenticationPrincipal Jwt jwt,
-            @RequestBody Movie movie){
-
-        MovieFavoriteAddedEvent event = MovieFavoriteAddedEvent.builder()
-                .movieId(movieId)
-                .userId(jwt.getSubject())
-                .title(movie.title())
-                .originalTitle(movie.original_title())
-                .overview(movie.overview())
-                .releaseDate(LocalDate.parse(movie.release_date()))
-                .posterPath(movie.poster_path())
-                .backdropPath(movie.backdrop_path())
-                .popularity(movie.popularity())
-                .voteAverage(movie.vote_average())
-                .voteCount(movie.vote_count())
-                .genreIds(movie.genre_ids())
-                .originalLanguage(movie.original_language())
-                .adult(movie.adult())
-                .video(movie.video())
-                .build();
+            @RequestBody(required = false) Movie movie){
+
+        //The event only carries ids, the movie reaches favorite-service through the catalog topic.
+        //Clients still send the movie, it stands in for the catalog when neither the store nor TMDB has it
+        MovieFavoriteAddedEvent.Builder event = MovieFavoriteAddedEvent.newBuilder()
+                .setUserId(jwt.getSubject())
+                .setMovieId(movieId);
+        movieCatalogPublisher.offerFavorited(movieId, movie);
         eventProducer.publishMovieFavoriteAdded(event);
         return ResponseEntity.ok("Movie added to favorites.Event published");
     }
 
+    @PostMapping("/favorites/batch")
+    @Operation(summary = "Add several movies to favorites at once by id, e.g. when importing a watchlist")
+    public ResponseEntity<Map<String, Integer>> addFavorites(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestBody List<Integer> movieIds){
+        //Duplicates would only publish the same event twice
+        Set<Integer> requested = new LinkedHashSet<>(movieIds);
+        if (requested.isEmpty() || requested.size() > maxBatchFavorites) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + maxBatchFavorites + " movies can be added at once");
+        }
+        if (requested.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Movie ids must not be null");
+        }
+
+        List<MovieFavoriteAddedEvent.Builder> events = new ArrayList<>(requested.size());
+        for (Integer movieId : requested) {
+            events.add(MovieFavoriteAddedEvent.newBuilder()
+                    .setUserId(jwt.getSubject())
+                    .setMovieId(movieId));
+        }
+        movieCatalogPublisher.offerFavorited(requested);
+
+        try {
+            eventProducer.publishMovieFavoritesAdded(events).get(batchFavoritesTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Favorites could not be published", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Favorites could not be published", e);
+        }
+        return ResponseEntity.ok(Map.of("published", events.size()));
+    }
+
     @DeleteMapping("/{movieId}/favorite")
     public ResponseEntity<String> removeFavorite(
             @PathVariable Integer movieId,
             @AuthenticationPrincipal Jwt jwt){
-        MovieFavoriteRemovedEvent event = MovieFavoriteRemovedEvent.builder()
-                .userId(jwt.getClaim("sub"))
-                .movieId(movieId)
-                .build();
+        MovieFavoriteRemovedEvent.Builder event = MovieFavoriteRemovedEvent.newBuilder()
+                .setUserId(jwt.getClaim("sub"))
+                .setMovieId(movieId);
         eventProducer.publishMovieFavoriteRemoved(event);
         return ResponseEntity.ok("Movie removed from favorites. Event published");
     }
 
+    //Accepts ranges and single pages, e.g. "1-5", "1,3,7" or "1-3,7"; stops as soon as the limit is passed
+    private List<Integer> parsePages(String pages){
+        //Every part names at least one page, so more parts than the limit never need splitting further
+        String[] parts = pages.split(",", maxBatchPages + 1);
+        if (parts.length > maxBatchPages) {
+            throw tooManyPages();
+        }
+        Set<Integer> pageNumbers = new LinkedHashSet<>();
+        try {
+            for (String part : parts) {
+                String[] bounds = part.trim().split("-", 2);
+                int first = Integer.parseInt(bounds[0].trim());
+                int last = bounds.length == 2 ? Integer.parseInt(bounds[1].trim()) : first;
+                if (first < 1 || last < first || last - first >= maxBatchPages) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page range: " + part);
+                }
+                for (int page = first; page <= last; page++) {
+                    if (pageNumbers.add(page) && pageNumbers.size() > maxBatchPages) {
+                        throw tooManyPages();
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid pages: " + pages);
+        }
+        return List.copyOf(pageNumbers);
+    }
+
+    private ResponseStatusException tooManyPages(){
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + maxBatchPages + " pages can be requested at once");
+    }
+
 }
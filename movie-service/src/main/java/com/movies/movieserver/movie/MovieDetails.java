@@ -0,0 +1,34 @@
+package com.movies.movieserver.movie;
+
+import java.util.List;
+
+/**
+ * A single movie as TMDB returns it from {@code /movie/{id}}, which lists genres by name instead of ids.
+ */
+public record MovieDetails(
+        int id,
+        String title,
+        String original_title,
+        String overview,
+        String release_date,
+        String poster_path,
+        String backdrop_path,
+        double popularity,
+        double vote_average,
+        int vote_count,
+        List<Genre> genres,
+        String original_language,
+        boolean adult,
+        boolean video
+) {
+
+    public Movie toMovie() {
+        return new Movie(id, title, original_title, overview, release_date, poster_path, backdrop_path,
+                popularity, vote_average, vote_count,
+                genres == null ? List.of() : genres.stream().map(Genre::id).toList(),
+                original_language, adult, video, false);
+    }
+
+    public record Genre(int id, String name) {
+    }
+}
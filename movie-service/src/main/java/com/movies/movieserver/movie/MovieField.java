@@ -0,0 +1,87 @@
+package com.movies.movieserver.movie;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The {@link Movie} fields a client can pick with {@code fields=}, under the same JSON names as in
+ * the full response. Each field writes itself straight to the generator, so a projection never
+ * builds an intermediate object per movie.
+ */
+public enum MovieField {
+
+    ID("id", (movie, json) -> json.writeNumber(movie.id())),
+    TITLE("title", (movie, json) -> json.writeString(movie.title())),
+    ORIGINAL_TITLE("original_title", (movie, json) -> json.writeString(movie.original_title())),
+    OVERVIEW("overview", (movie, json) -> json.writeString(movie.overview())),
+    RELEASE_DATE("release_date", (movie, json) -> json.writeString(movie.release_date())),
+    POSTER_PATH("poster_path", (movie, json) -> json.writeString(movie.poster_path())),
+    BACKDROP_PATH("backdrop_path", (movie, json) -> json.writeString(movie.backdrop_path())),
+    POPULARITY("popularity", (movie, json) -> json.writeNumber(movie.popularity())),
+    VOTE_AVERAGE("vote_average", (movie, json) -> json.writeNumber(movie.vote_average())),
+    VOTE_COUNT("vote_count", (movie, json) -> json.writeNumber(movie.vote_count())),
+    GENRE_IDS("genre_ids", (movie, json) -> writeGenres(movie.genre_ids(), json)),
+    ORIGINAL_LANGUAGE("original_language", (movie, json) -> json.writeString(movie.original_language())),
+    ADULT("adult", (movie, json) -> json.writeBoolean(movie.adult())),
+    VIDEO("video", (movie, json) -> json.writeBoolean(movie.video())),
+    IS_FAVORITE("isFavorite", (movie, json) -> json.writeBoolean(movie.isFavorite()));
+
+    private final String jsonName;
+    private final FieldWriter writer;
+
+    MovieField(String jsonName, FieldWriter writer) {
+        this.jsonName = jsonName;
+        this.writer = writer;
+    }
+
+    /**
+     * Parses a comma separated list of JSON field names, e.g. {@code id,title,poster_path}.
+     * A missing or blank list selects every field, which is returned as an empty set.
+     */
+    public static Set<MovieField> parse(String fields) {
+        EnumSet<MovieField> selected = EnumSet.noneOf(MovieField.class);
+        if (fields == null || fields.isBlank()) {
+            return selected;
+        }
+        for (String name : fields.split(",")) {
+            selected.add(byJsonName(name.trim()));
+        }
+        return selected.size() == values().length ? EnumSet.noneOf(MovieField.class) : selected;
+    }
+
+    void write(Movie movie, JsonGenerator json) throws IOException {
+        json.writeFieldName(jsonName);
+        writer.write(movie, json);
+    }
+
+    private static MovieField byJsonName(String name) {
+        for (MovieField field : values()) {
+            if (field.jsonName.equals(name) || field.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown movie field: " + name);
+    }
+
+    private static void writeGenres(List<Integer> genreIds, JsonGenerator json) throws IOException {
+        if (genreIds == null) {
+            json.writeNull();
+            return;
+        }
+        json.writeStartArray();
+        for (Integer genreId : genreIds) {
+            json.writeNumber(genreId);
+        }
+        json.writeEndArray();
+    }
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(Movie movie, JsonGenerator json) throws IOException;
+    }
+}
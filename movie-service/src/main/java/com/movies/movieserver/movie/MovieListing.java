@@ -0,0 +1,37 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.cache.MoviePageKey;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * The TMDB listings movie-service serves, with the locale and cache expiry used for each.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MovieListing {
+
+    UPCOMING("upcomingMovies", "en-US", "US", Duration.ofHours(3)),
+    NOW_PLAYING("nowPlayingMovies", "en-US", "TR", Duration.ofHours(1));
+
+    private final String key;
+    private final String language;
+    private final String region;
+    private final Duration ttl;
+
+    public MoviePageKey pageKey(int page) {
+        return new MoviePageKey(key, page, language, region);
+    }
+
+    //The listing a page cache key belongs to, null for keys of anything else
+    public static MovieListing forCacheKey(String cacheKey) {
+        for (MovieListing listing : values()) {
+            if (cacheKey.startsWith(listing.key + ":")) {
+                return listing;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.governor.MovieApiGovernor;
+import com.movies.movieserver.movie.governor.MovieApiPriority;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Fetches one page of a {@link MovieListing}, or a single movie, from TMDB through the {@link MovieApiGovernor}.
+ */
+@Component
+@RequiredArgsConstructor
+public class MovieListingClient {
+
+    private final MovieClient movieClient;
+    private final MovieApiGovernor movieApiGovernor;
+
+    @Value("${tmbd.api.key}")
+    private String apiKey;
+
+    public MovieApiResponse fetch(MovieListing listing, int page, MovieApiPriority priority) {
+        return movieApiGovernor.call(priority, () -> fetchNow(listing, page));
+    }
+
+    //In the language the listings are served in
+    public Movie fetchMovie(int movieId, MovieApiPriority priority) {
+        return movieApiGovernor.call(priority, () -> movieClient
+                .getMovie("Bearer " + apiKey, movieId, MovieListing.NOW_PLAYING.getLanguage())
+                .toMovie());
+    }
+
+    private MovieApiResponse fetchNow(MovieListing listing, int page) {
+        String bearerToken = "Bearer " + apiKey;
+        return switch (listing) {
+            case UPCOMING -> movieClient.getUpcomingMovies(
+                    bearerToken,
+                    listing.getLanguage(),
+                    page,
+                    listing.getRegion(),
+                    "2|3",
+                    LocalDate.now().toString()
+            );
+            case NOW_PLAYING -> movieClient.getNowPlayingMovies(
+                    bearerToken,
+                    listing.getLanguage(),
+                    page,
+                    listing.getRegion()
+            );
+        };
+    }
+}
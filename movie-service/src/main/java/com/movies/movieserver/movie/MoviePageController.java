@@ -0,0 +1,94 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.favorite.UserFavorites;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves single movie pages on the request thread. Replaced by {@link ReactiveMoviePageController}
+ * when the {@code reactive} profile is active.
+ */
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class MoviePageController {
+
+    private final MovieService movieService;
+    private final MoviePageRenderer moviePageRenderer;
+    private final UserFavorites userFavorites;
+
+    @Value("${movie.page.max-size:100}")
+    private int maxPageSize;
+
+    @GetMapping("/upcomingMovies")
+    @Operation(summary = "Get upcoming movies"
+            //,security = { @SecurityRequirement(name = "bearerAuth") }
+            )
+    public ResponseEntity<byte[]> getUpcomingMovies(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false, defaultValue = "1") int pageNumber,
+            @RequestParam(required = false, defaultValue = "20") int pageSize,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false, defaultValue = "false") boolean favorites) {
+        //System.out.println("User name: " + jwt.getClaim("preferred_username"));
+        //System.out.println("User ID: " + jwt.getClaim("sub"));
+        checkPage(pageNumber, pageSize, maxPageSize);
+        Set<MovieField> selected = parseFields(fields);
+        return respond(movieService.fetchUpcomingMovies(pageNumber, pageSize), selected, favorites ? jwt : null);
+    }
+
+    @GetMapping("/nowPlaying")
+    public ResponseEntity<byte[]> getNowPlayingMovies(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false, defaultValue = "1") int pageNumber,
+            @RequestParam(required = false, defaultValue = "20") int pageSize,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false, defaultValue = "false") boolean favorites
+    ){
+        checkPage(pageNumber, pageSize, maxPageSize);
+        Set<MovieField> selected = parseFields(fields);
+        return respond(movieService.getNowPlayingMovies(pageNumber, pageSize), selected, favorites ? jwt : null);
+    }
+
+    //favorites=true marks the user's favorites on the page, anonymous requests get the shared page
+    private ResponseEntity<byte[]> respond(List<Movie> movies, Set<MovieField> fields, Jwt user){
+        if (user == null) {
+            return moviePageRenderer.toResponse(movies, fields);
+        }
+        Set<Integer> favoriteIds = userFavorites.findAmong(user.getSubject(), movies);
+        //Unknown favorites get the shared page rather than one that claims the user has none
+        if (favoriteIds == null) {
+            return moviePageRenderer.toResponse(movies, fields);
+        }
+        return moviePageRenderer.toResponse(movies, fields, favoriteIds);
+    }
+
+    static void checkPage(int pageNumber, int pageSize, int maxPageSize){
+        if (pageNumber < 1 || pageSize < 1 || pageSize > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "pageNumber must be positive and pageSize between 1 and " + maxPageSize);
+        }
+    }
+
+    //fields=id,title,poster_path returns only those fields of each movie, all of them when absent
+    static Set<MovieField> parseFields(String fields){
+        try {
+            return MovieField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
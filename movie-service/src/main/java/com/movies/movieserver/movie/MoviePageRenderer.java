@@ -0,0 +1,147 @@
+package com.movies.movieserver.movie;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders movie pages to JSON once and reuses the bytes for as long as the same cached page
+ * instance is being served.
+ * <p>
+ * Rendered pages are keyed by the identity of the list returned by the page cache, so a page that is
+ * reloaded or refreshed is a different instance and gets rendered again. The ETag is a hash of the
+ * rendered bytes, so every replica produces the same tag for the same content.
+ * <p>
+ * A page can also be rendered with only some {@link MovieField}s. Projections are streamed field by
+ * field from the cached movies and kept next to the full rendering of the same page instance, up to
+ * {@code movie.cache.rendered.max-projections} different field sets per page.
+ * <p>
+ * Pages personalized with a user's favorites are rendered from a copy of the cached page and never
+ * kept, so they neither change the shared page nor push shared renderings out of the cache.
+ */
+@Component
+public class MoviePageRenderer {
+
+    private final ObjectMapper objectMapper;
+    private final int maxProjections;
+    private final Cache<List<Movie>, Map<Set<MovieField>, RenderedPage>> renderedPages;
+
+    public MoviePageRenderer(ObjectMapper objectMapper,
+                             @Value("${movie.cache.rendered.max-pages:256}") long maxPages,
+                             @Value("${movie.cache.rendered.max-projections:4}") int maxProjections) {
+        this.objectMapper = objectMapper;
+        this.maxProjections = maxProjections;
+        //weakKeys() compares keys by identity and lets evicted pages be collected
+        this.renderedPages = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxPages)
+                .build();
+    }
+
+    public RenderedPage render(List<Movie> movies) {
+        return render(movies, Set.of());
+    }
+
+    /**
+     * Renders only the given fields of each movie; an empty set renders every field.
+     */
+    public RenderedPage render(List<Movie> movies, Set<MovieField> fields) {
+        Map<Set<MovieField>, RenderedPage> renderings =
+                renderedPages.get(movies, page -> new ConcurrentHashMap<>());
+        RenderedPage rendered = renderings.get(fields);
+        if (rendered != null) {
+            return rendered;
+        }
+        //The full page always counts as one of the renderings
+        if (!fields.isEmpty() && renderings.size() > maxProjections) {
+            return renderNow(movies, fields);
+        }
+        return renderings.computeIfAbsent(Set.copyOf(fields), selected -> renderNow(movies, selected));
+    }
+
+    //Spring answers a matching If-None-Match with 304 and no body when the response carries an ETag
+    public ResponseEntity<byte[]> toResponse(List<Movie> movies) {
+        return toResponse(movies, Set.of());
+    }
+
+    public ResponseEntity<byte[]> toResponse(List<Movie> movies, Set<MovieField> fields) {
+        RenderedPage page = render(movies, fields);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(page.etag())
+                .body(page.body());
+    }
+
+    /**
+     * Responds with the page marking the given movies as favorites. A page without any of them is
+     * the shared page and still comes from the rendered cache.
+     */
+    public ResponseEntity<byte[]> toResponse(List<Movie> movies, Set<MovieField> fields, Set<Integer> favoriteIds) {
+        RenderedPage page = favoriteIds.isEmpty()
+                ? render(movies, fields)
+                : renderNow(markFavorites(movies, favoriteIds), fields);
+        //Personalized responses must not be stored by shared caches in front of the service
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(page.etag())
+                .body(page.body());
+    }
+
+    private static List<Movie> markFavorites(List<Movie> movies, Set<Integer> favoriteIds) {
+        List<Movie> marked = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            marked.add(favoriteIds.contains(movie.id()) ? movie.asFavorite() : movie);
+        }
+        return marked;
+    }
+
+    private RenderedPage renderNow(List<Movie> movies, Set<MovieField> fields) {
+        try {
+            byte[] body = fields.isEmpty() ? objectMapper.writeValueAsBytes(movies) : project(movies, fields);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            String etag = "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+            return new RenderedPage(body, etag);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not render movie page", e);
+        }
+    }
+
+    //Fields are written in declaration order whatever order they were requested in
+    private byte[] project(List<Movie> movies, Set<MovieField> fields) throws IOException {
+        MovieField[] selected = fields.stream().sorted().toArray(MovieField[]::new);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(movies.size() * selected.length * 24);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            for (Movie movie : movies) {
+                json.writeStartObject();
+                for (MovieField field : selected) {
+                    field.write(movie, json);
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        return out.toByteArray();
+    }
+
+    public record RenderedPage(byte[] body, String etag) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.columns.MovieColumnStore;
+import com.movies.movieserver.movie.columns.MovieRankBy;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static com.movies.movieserver.movie.MoviePageController.checkPage;
+
+/**
+ * Ranks all movies this replica has seen in a listing, across every page, without calling TMDB.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MovieRankingController {
+
+    private final MovieColumnStore movieColumnStore;
+
+    @Value("${movie.page.max-size:100}")
+    private int maxPageSize;
+
+    @GetMapping("/upcomingMovies/top")
+    @Operation(summary = "Get the top upcoming movies across all pages, e.g. rankBy=POPULARITY&limit=10")
+    public List<Movie> getTopUpcomingMovies(
+            @RequestParam(required = false, defaultValue = "POPULARITY") MovieRankBy rankBy,
+            @RequestParam(required = false) Integer genre,
+            @RequestParam(required = false, defaultValue = "0") int minVotes,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        checkPage(1, limit, maxPageSize);
+        return movieColumnStore.top(MovieListing.UPCOMING, rankBy, genre, minVotes, limit);
+    }
+
+    @GetMapping("/nowPlaying/top")
+    @Operation(summary = "Get the top now playing movies across all pages, e.g. rankBy=VOTE_AVERAGE&genre=28")
+    public List<Movie> getTopNowPlayingMovies(
+            @RequestParam(required = false, defaultValue = "POPULARITY") MovieRankBy rankBy,
+            @RequestParam(required = false) Integer genre,
+            @RequestParam(required = false, defaultValue = "0") int minVotes,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        checkPage(1, limit, maxPageSize);
+        return movieColumnStore.top(MovieListing.NOW_PLAYING, rankBy, genre, minVotes, limit);
+    }
+}
@@ -0,0 +1,57 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.search.MovieSearchIndex;
+import com.movies.movieserver.movie.search.MovieSearchQuery;
+import com.movies.movieserver.movie.search.MovieSearchResult;
+import com.movies.movieserver.movie.search.MovieSearchSort;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static com.movies.movieserver.movie.MoviePageController.checkPage;
+
+/**
+ * Searches the movies this replica has cached, without calling TMDB.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MovieSearchController {
+
+    private final MovieSearchIndex movieSearchIndex;
+
+    @Value("${movie.page.max-size:100}")
+    private int maxPageSize;
+
+    @GetMapping("/search")
+    @Operation(summary = "Search cached movies by title words, genres, language and release dates, with facet counts")
+    public MovieSearchResult search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Set<Integer> genre,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedTo,
+            @RequestParam(required = false, defaultValue = "false") boolean adult,
+            @RequestParam(required = false, defaultValue = "POPULARITY") MovieSearchSort sort,
+            @RequestParam(required = false, defaultValue = "1") int pageNumber,
+            @RequestParam(required = false, defaultValue = "20") int pageSize) {
+        checkPage(pageNumber, pageSize, maxPageSize);
+        return movieSearchIndex.search(MovieSearchQuery.builder()
+                .text(q)
+                .genreIds(genre)
+                .language(language)
+                .releasedFrom(releasedFrom)
+                .releasedTo(releasedTo)
+                .includeAdult(adult)
+                .sort(sort)
+                .page(pageNumber)
+                .pageSize(pageSize)
+                .build());
+    }
+}
@@ -1,66 +1,183 @@
 package com.movies.movieserver.movie;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movies.movieserver.movie.cache.MoviePageCache;
+import com.movies.movieserver.movie.cache.MoviePageKey;
+import com.movies.movieserver.movie.cache.MoviePageLoader;
+import com.movies.movieserver.movie.cache.MoviePageRefresher;
+import com.movies.movieserver.movie.catalog.MovieCatalog;
+import com.movies.movieserver.movie.governor.MovieApiPriority;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class MovieService {
 
-    private final MovieClient movieClient;
-    private final RedisTemplate<String,Movie> productRedisTemplate;
+    //Number of movies TMDB returns per page
+    public static final int TMDB_PAGE_SIZE = 20;
 
-    @Value("${tmbd.api.key}")
-    private String apiKey;
+    private final MovieListingClient movieListingClient;
+    private final MoviePageCache moviePageCache;
+    private final MoviePageLoader moviePageLoader;
+    private final MoviePageRefresher moviePageRefresher;
+    private final MovieCatalog movieCatalog;
+    private final ExecutorService movieFetchExecutor;
+
+    //Pages cut from TMDB pages, kept so the same cut is served as the same instance, see MoviePageRenderer
+    private final Cache<SlicedPageKey, SlicedPage> slicedPages = Caffeine.newBuilder()
+            .maximumSize(256)
+            .build();
 
     public List<Movie> fetchUpcomingMovies(int pageNumber){
-        String bearerToken = "Bearer " + apiKey;
-        String today = LocalDate.now().toString();
-        String cacheKey = "upcomingMovies:page_" + pageNumber;
-
-        List<Movie> cachedMovies = productRedisTemplate.opsForList().range(cacheKey,0,-1);
-
-        assert cachedMovies != null;
-        if(cachedMovies.isEmpty()){
-            MovieApiResponse resp =  movieClient.getUpcomingMovies(
-                    bearerToken,
-                    "en-US",
-                    pageNumber,
-                    "US",
-                    "2|3",
-                    today
-            );
-
-            productRedisTemplate.opsForList().rightPushAll(cacheKey, resp.results());
-            productRedisTemplate.expire(cacheKey, Duration.ofHours(3));
-            return resp.results();
-        }
-        return cachedMovies;
+        return getPage(MovieListing.UPCOMING, pageNumber, TMDB_PAGE_SIZE);
+    }
+
+    public List<Movie> fetchUpcomingMovies(int pageNumber, int pageSize){
+        return getPage(MovieListing.UPCOMING, pageNumber, pageSize);
     }
 
     public List<Movie> getNowPlayingMovies(int pageNumber){
-        String bearerToken = "Bearer " + apiKey;
-        String cacheKey = "nowPlayingMovies:page_" + pageNumber;
-
-        List<Movie> cachedPlayingMovies = productRedisTemplate.opsForList().range(cacheKey,0,-1);
-
-        if(cachedPlayingMovies == null || cachedPlayingMovies.isEmpty()){
-            MovieApiResponse res = movieClient.getNowPlayingMovies(
-                    bearerToken,
-                    "en-US",
-                    pageNumber,
-                    "TR"
-            );
-            productRedisTemplate.opsForList().rightPushAll(cacheKey,res.results());
-            productRedisTemplate.expire(cacheKey,Duration.ofHours(1));
-            return res.results();
+        return getPage(MovieListing.NOW_PLAYING, pageNumber, TMDB_PAGE_SIZE);
+    }
+
+    public List<Movie> getNowPlayingMovies(int pageNumber, int pageSize){
+        return getPage(MovieListing.NOW_PLAYING, pageNumber, pageSize);
+    }
+
+    /**
+     * Returns the requested upcoming pages keyed by page number. Cached pages are read in one
+     * pipeline and only the missing ones are fetched from TMDB, concurrently.
+     */
+    public Map<Integer, List<Movie>> fetchUpcomingMovies(List<Integer> pageNumbers){
+        return getPages(MovieListing.UPCOMING, pageNumbers);
+    }
+
+    public Map<Integer, List<Movie>> getNowPlayingMovies(List<Integer> pageNumbers){
+        return getPages(MovieListing.NOW_PLAYING, pageNumbers);
+    }
+
+    //Pages of any size come from the catalog when it covers them, otherwise they are cut from TMDB pages
+    private List<Movie> getPage(MovieListing listing, int pageNumber, int pageSize){
+        Optional<List<Movie>> fromCatalog = movieCatalog.page(listing, pageNumber, pageSize);
+        if (fromCatalog.isPresent()) {
+            return fromCatalog.get();
+        }
+        if (pageSize == TMDB_PAGE_SIZE) {
+            return getPages(listing, List.of(pageNumber)).get(pageNumber);
+        }
+
+        long first = (long) (pageNumber - 1) * pageSize;
+        int firstTmdbPage = (int) (first / TMDB_PAGE_SIZE) + 1;
+        int lastTmdbPage = (int) ((first + pageSize - 1) / TMDB_PAGE_SIZE) + 1;
+        List<Integer> tmdbPages = new ArrayList<>();
+        for (int page = firstTmdbPage; page <= lastTmdbPage; page++) {
+            tmdbPages.add(page);
+        }
+
+        List<List<Movie>> sources = new ArrayList<>(getPages(listing, tmdbPages).values());
+        SlicedPageKey key = new SlicedPageKey(listing, pageNumber, pageSize);
+        SlicedPage sliced = slicedPages.getIfPresent(key);
+        if (sliced != null && sliced.isCutFrom(sources)) {
+            return sliced.movies();
+        }
+
+        List<Movie> movies = new ArrayList<>();
+        sources.forEach(movies::addAll);
+        int from = (int) Math.min(first % TMDB_PAGE_SIZE, movies.size());
+        List<Movie> page = List.copyOf(movies.subList(from, Math.min(from + pageSize, movies.size())));
+        slicedPages.put(key, new SlicedPage(sources, page));
+        return page;
+    }
+
+    private record SlicedPageKey(MovieListing listing, int pageNumber, int pageSize) {
+    }
+
+    //Only valid while the TMDB pages it was cut from are the same cached instances
+    private record SlicedPage(List<List<Movie>> sources, List<Movie> movies) {
+
+        private boolean isCutFrom(List<List<Movie>> pages) {
+            if (pages.size() != sources.size()) {
+                return false;
+            }
+            for (int i = 0; i < pages.size(); i++) {
+                if (pages.get(i) != sources.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private Map<Integer, List<Movie>> getPages(MovieListing listing, List<Integer> pageNumbers){
+        Map<Integer, List<Movie>> result = new LinkedHashMap<>();
+        Map<Integer, MoviePageKey> keysByPage = new LinkedHashMap<>();
+        for (Integer pageNumber : pageNumbers) {
+            Optional<List<Movie>> fromCatalog = movieCatalog.page(listing, pageNumber, TMDB_PAGE_SIZE);
+            if (fromCatalog.isPresent()) {
+                result.put(pageNumber, fromCatalog.get());
+                continue;
+            }
+            MoviePageKey pageKey = listing.pageKey(pageNumber);
+            result.put(pageNumber, null);
+            keysByPage.put(pageNumber, pageKey);
+            moviePageRefresher.recordAccess(pageKey, listing.getTtl(),
+                    fetcher(listing, pageKey, MovieApiPriority.BACKGROUND));
+        }
+        if (keysByPage.isEmpty()) {
+            return result;
+        }
+
+        Map<String, List<Movie>> cachedPages = moviePageCache.getAll(
+                keysByPage.values().stream().map(MoviePageKey::cacheKey).toList());
+
+        //A single missing page is loaded on the calling thread
+        boolean parallel = cachedPages.values().stream().filter(List::isEmpty).count() > 1;
+
+        Map<Integer, CompletableFuture<List<Movie>>> pages = new LinkedHashMap<>();
+        keysByPage.forEach((pageNumber, pageKey) -> {
+            List<Movie> cachedMovies = cachedPages.get(pageKey.cacheKey());
+            if (!cachedMovies.isEmpty()) {
+                pages.put(pageNumber, CompletableFuture.completedFuture(cachedMovies));
+            } else if (parallel) {
+                pages.put(pageNumber, CompletableFuture.supplyAsync(
+                        () -> moviePageLoader.load(pageKey, listing.getTtl(),
+                                fetcher(listing, pageKey, MovieApiPriority.USER)),
+                        movieFetchExecutor));
+            } else {
+                pages.put(pageNumber, CompletableFuture.completedFuture(
+                        moviePageLoader.load(pageKey, listing.getTtl(),
+                                fetcher(listing, pageKey, MovieApiPriority.USER))));
+            }
+        });
+
+        pages.forEach((pageNumber, page) -> result.put(pageNumber, join(page)));
+        return result;
+    }
+
+    private Supplier<List<Movie>> fetcher(MovieListing listing, MoviePageKey pageKey, MovieApiPriority priority){
+        return () -> movieListingClient.fetch(listing, pageKey.page(), priority).results();
+    }
+
+    private static List<Movie> join(CompletableFuture<List<Movie>> page){
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        return cachedPlayingMovies;
     }
 }
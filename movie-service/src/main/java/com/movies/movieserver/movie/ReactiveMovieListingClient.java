@@ -0,0 +1,64 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.governor.MovieApiGovernor;
+import com.movies.movieserver.movie.governor.MovieApiPriority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Non-blocking counterpart of {@link MovieListingClient}, sending the same TMDB requests through
+ * {@link WebClient} so no thread waits for TMDB to answer.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveMovieListingClient {
+
+    private final WebClient webClient;
+    private final MovieApiGovernor movieApiGovernor;
+    private final Duration timeout;
+
+    public ReactiveMovieListingClient(WebClient.Builder webClientBuilder,
+                                      MovieApiGovernor movieApiGovernor,
+                                      @Value("${movie.api.url:https://api.themoviedb.org/3}") String apiUrl,
+                                      @Value("${tmbd.api.key}") String apiKey,
+                                      @Value("${movie.api.reactive.timeout:10s}") Duration timeout) {
+        this.webClient = webClientBuilder
+                .baseUrl(apiUrl)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .build();
+        this.movieApiGovernor = movieApiGovernor;
+        this.timeout = timeout;
+    }
+
+    public Mono<MovieApiResponse> fetch(MovieListing listing, int page, MovieApiPriority priority) {
+        return movieApiGovernor.call(priority, fetchNow(listing, page));
+    }
+
+    private Mono<MovieApiResponse> fetchNow(MovieListing listing, int page) {
+        return webClient.get()
+                .uri(uriBuilder -> switch (listing) {
+                    case UPCOMING -> uriBuilder.path("/discover/movie")
+                            .queryParam("language", listing.getLanguage())
+                            .queryParam("page", page)
+                            .queryParam("region", listing.getRegion())
+                            .queryParam("with_release_type", "{releaseType}")
+                            .queryParam("primary_release_date.gte", LocalDate.now().toString())
+                            .build("2|3");
+                    case NOW_PLAYING -> uriBuilder.path("/movie/now_playing")
+                            .queryParam("language", listing.getLanguage())
+                            .queryParam("page", page)
+                            .queryParam("region", listing.getRegion())
+                            .build();
+                })
+                .retrieve()
+                .bodyToMono(MovieApiResponse.class)
+                .timeout(timeout);
+    }
+}
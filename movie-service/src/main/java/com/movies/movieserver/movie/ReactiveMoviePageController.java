@@ -0,0 +1,76 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.favorite.UserFavorites;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.movies.movieserver.movie.MoviePageController.checkPage;
+import static com.movies.movieserver.movie.MoviePageController.parseFields;
+
+/**
+ * Serves single movie pages without holding a Tomcat thread: Spring MVC hands the request back to
+ * the container and completes it when the {@link Mono} emits, so slow TMDB calls no longer queue
+ * cache hits behind them.
+ */
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveMoviePageController {
+
+    private final ReactiveMovieService reactiveMovieService;
+    private final MoviePageRenderer moviePageRenderer;
+    private final UserFavorites userFavorites;
+
+    @Value("${movie.page.max-size:100}")
+    private int maxPageSize;
+
+    @GetMapping("/upcomingMovies")
+    @Operation(summary = "Get upcoming movies")
+    public Mono<ResponseEntity<byte[]>> getUpcomingMovies(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false, defaultValue = "1") int pageNumber,
+            @RequestParam(required = false, defaultValue = "20") int pageSize,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false, defaultValue = "false") boolean favorites) {
+        checkPage(pageNumber, pageSize, maxPageSize);
+        Set<MovieField> selected = parseFields(fields);
+        return reactiveMovieService.fetchUpcomingMovies(pageNumber, pageSize)
+                .flatMap(movies -> respond(movies, selected, favorites ? jwt : null));
+    }
+
+    @GetMapping("/nowPlaying")
+    public Mono<ResponseEntity<byte[]>> getNowPlayingMovies(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false, defaultValue = "1") int pageNumber,
+            @RequestParam(required = false, defaultValue = "20") int pageSize,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false, defaultValue = "false") boolean favorites
+    ){
+        checkPage(pageNumber, pageSize, maxPageSize);
+        Set<MovieField> selected = parseFields(fields);
+        return reactiveMovieService.getNowPlayingMovies(pageNumber, pageSize)
+                .flatMap(movies -> respond(movies, selected, favorites ? jwt : null));
+    }
+
+    private Mono<ResponseEntity<byte[]>> respond(List<Movie> movies, Set<MovieField> fields, Jwt user){
+        if (user == null) {
+            return Mono.just(moviePageRenderer.toResponse(movies, fields));
+        }
+        //Unknown favorites get the shared page rather than one that claims the user has none
+        return userFavorites.findAmongReactive(user.getSubject(), movies)
+                .map(favoriteIds -> moviePageRenderer.toResponse(movies, fields, favoriteIds))
+                .switchIfEmpty(Mono.fromSupplier(() -> moviePageRenderer.toResponse(movies, fields)));
+    }
+}
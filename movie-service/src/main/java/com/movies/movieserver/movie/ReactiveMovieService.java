@@ -0,0 +1,132 @@
+package com.movies.movieserver.movie;
+
+import com.movies.movieserver.movie.cache.MoviePageKey;
+import com.movies.movieserver.movie.cache.MoviePageRefresher;
+import com.movies.movieserver.movie.cache.ReactiveMoviePageCache;
+import com.movies.movieserver.movie.governor.MovieApiPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.movies.movieserver.movie.MovieService.TMDB_PAGE_SIZE;
+
+/**
+ * Non-blocking counterpart of {@link MovieService} for single pages, active with the {@code reactive}
+ * profile. Cache hits and TMDB misses are served without holding a request thread.
+ * <p>
+ * Concurrent misses for the same page on this replica share one TMDB request. Unlike the blocking
+ * path there is no cross-replica lease and the catalog is not consulted; pages requested here are
+ * still kept warm by {@link MoviePageRefresher}.
+ * <p>
+ * The path is not fully reactive: {@link com.movies.movieserver.movie.governor.MovieApiGovernor}
+ * acquires its permit with a blocking call, which runs on {@code Schedulers.boundedElastic()}, so
+ * each miss that reaches TMDB still holds an elastic thread while it waits for a permit.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveMovieService {
+
+    private final ReactiveMovieListingClient reactiveMovieListingClient;
+    private final MovieListingClient movieListingClient;
+    private final ReactiveMoviePageCache reactiveMoviePageCache;
+    private final MoviePageRefresher moviePageRefresher;
+
+    private final Map<String, Mono<List<Movie>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter fetched;
+    private final Counter coalesced;
+
+    public ReactiveMovieService(ReactiveMovieListingClient reactiveMovieListingClient,
+                                MovieListingClient movieListingClient,
+                                ReactiveMoviePageCache reactiveMoviePageCache,
+                                MoviePageRefresher moviePageRefresher,
+                                MeterRegistry meterRegistry) {
+        this.reactiveMovieListingClient = reactiveMovieListingClient;
+        this.movieListingClient = movieListingClient;
+        this.reactiveMoviePageCache = reactiveMoviePageCache;
+        this.moviePageRefresher = moviePageRefresher;
+
+        this.fetched = loads(meterRegistry, "fetched");
+        this.coalesced = loads(meterRegistry, "coalesced");
+    }
+
+    public Mono<List<Movie>> fetchUpcomingMovies(int pageNumber, int pageSize){
+        return getPage(MovieListing.UPCOMING, pageNumber, pageSize);
+    }
+
+    public Mono<List<Movie>> getNowPlayingMovies(int pageNumber, int pageSize){
+        return getPage(MovieListing.NOW_PLAYING, pageNumber, pageSize);
+    }
+
+    //Pages of other sizes are cut from the TMDB pages they span, like in MovieService
+    private Mono<List<Movie>> getPage(MovieListing listing, int pageNumber, int pageSize){
+        if (pageSize == TMDB_PAGE_SIZE) {
+            return getTmdbPage(listing, pageNumber);
+        }
+
+        long first = (long) (pageNumber - 1) * pageSize;
+        int firstTmdbPage = (int) (first / TMDB_PAGE_SIZE) + 1;
+        int lastTmdbPage = (int) ((first + pageSize - 1) / TMDB_PAGE_SIZE) + 1;
+        List<Integer> tmdbPages = new ArrayList<>();
+        for (int page = firstTmdbPage; page <= lastTmdbPage; page++) {
+            tmdbPages.add(page);
+        }
+
+        return Flux.fromIterable(tmdbPages)
+                .flatMapSequential(page -> getTmdbPage(listing, page))
+                .collectList()
+                .map(pages -> {
+                    List<Movie> movies = new ArrayList<>();
+                    pages.forEach(movies::addAll);
+                    int from = (int) Math.min(first % TMDB_PAGE_SIZE, movies.size());
+                    return List.copyOf(movies.subList(from, Math.min(from + pageSize, movies.size())));
+                });
+    }
+
+    private Mono<List<Movie>> getTmdbPage(MovieListing listing, int pageNumber){
+        MoviePageKey pageKey = listing.pageKey(pageNumber);
+        //The refresher runs on its own scheduler thread, so it can keep using the blocking client
+        moviePageRefresher.recordAccess(pageKey, listing.getTtl(),
+                () -> movieListingClient.fetch(listing, pageNumber, MovieApiPriority.BACKGROUND).results());
+
+        return reactiveMoviePageCache.get(pageKey.cacheKey())
+                .flatMap(cached -> cached.isEmpty() ? load(listing, pageKey) : Mono.just(cached));
+    }
+
+    private Mono<List<Movie>> load(MovieListing listing, MoviePageKey pageKey){
+        String flightKey = pageKey.flightKey();
+        AtomicReference<Mono<List<Movie>>> thisFlight = new AtomicReference<>();
+        Mono<List<Movie>> flight = Mono.defer(
+                        () -> reactiveMovieListingClient.fetch(listing, pageKey.page(), MovieApiPriority.USER))
+                .map(response -> response.results() == null ? List.<Movie>of() : response.results())
+                .doOnNext(movies -> fetched.increment())
+                .flatMap(movies -> reactiveMoviePageCache.put(pageKey.cacheKey(), movies, listing.getTtl()))
+                //Only our own entry: a later flight for the same page may already have replaced it
+                .doFinally(signal -> inFlight.remove(flightKey, thisFlight.get()))
+                .cache();
+        thisFlight.set(flight);
+
+        Mono<List<Movie>> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        return flight;
+    }
+
+    private static Counter loads(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("movie.page.loads")
+                .description("Movie page cache misses by how they were resolved")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
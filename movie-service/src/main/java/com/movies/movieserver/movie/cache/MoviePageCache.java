@@ -0,0 +1,399 @@
+package com.movies.movieserver.movie.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.MovieListing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Two-tier cache for movie pages: a size-bounded in-process (L1) cache in front of the Redis lists.
+ * <p>
+ * L1 entries never outlive the Redis key they were read from. Every write is announced on a Redis
+ * pub/sub channel so the other movie-service replicas drop their local copy of that page.
+ * <p>
+ * In Redis a page is an ordered list of movie ids; the movies themselves live once each in the
+ * {@link MovieStore} and all pages read together are resolved with a single MGET. A page is always
+ * written with one Lua script that replaces the id list and sets its expiry together, so concurrent
+ * writers can never append to each other's pages. Reads and writes of several pages go to Redis in
+ * a single pipeline. Lists still holding whole movies from before the id lists are read as they are.
+ * <p>
+ * With {@code movie.cache.format=binary} pages are instead written as one self-contained compressed
+ * {@link MoviePageCodec} value, trading deduplication for a single GET per page. Reads look for the
+ * configured format first and fall back to the other one, so replicas can be switched over while
+ * pages written in the old format are still live.
+ * <p>
+ * Every page taken into the local cache is announced as a {@link MoviesCachedEvent}.
+ */
+@Component
+@Slf4j
+public class MoviePageCache implements MessageListener {
+
+    //KEYS[1] = page key, ARGV[1] = ttl in millis, ARGV[2..] = movie ids
+    static final byte[] REPLACE_PAGE = """
+            redis.call('DEL', KEYS[1])
+            redis.call('RPUSH', KEYS[1], unpack(ARGV, 2))
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Movie> productRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MovieStore movieStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, CachedPage> localPages;
+    private final Duration localTtl;
+    private final String invalidationChannel;
+    private final MoviePageFormat format;
+
+    //Identifies this replica so it can ignore its own invalidation messages
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter invalidationsReceived;
+
+    public MoviePageCache(RedisTemplate<String, Movie> productRedisTemplate,
+                          StringRedisTemplate stringRedisTemplate,
+                          MovieStore movieStore,
+                          ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${movie.cache.local.max-pages:256}") long maxPages,
+                          @Value("${movie.cache.local.ttl:10m}") Duration localTtl,
+                          @Value("${movie.cache.invalidation-channel:movieCache:invalidate}") String invalidationChannel,
+                          @Value("${movie.cache.format:json}") MoviePageFormat format) {
+        this.productRedisTemplate = productRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.movieStore = movieStore;
+        this.eventPublisher = eventPublisher;
+        this.localTtl = localTtl;
+        this.invalidationChannel = invalidationChannel;
+        this.format = format;
+        this.localPages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfter(Expiry.writing((String key, CachedPage page) -> page.ttl()))
+                .build();
+
+        this.localHits = requests(meterRegistry, "local", "hit");
+        this.localMisses = requests(meterRegistry, "local", "miss");
+        this.redisHits = requests(meterRegistry, "redis", "hit");
+        this.redisMisses = requests(meterRegistry, "redis", "miss");
+        this.invalidationsReceived = Counter.builder("movie.page.cache.invalidations")
+                .description("Invalidation messages received from other replicas")
+                .register(meterRegistry);
+        meterRegistry.gauge("movie.page.cache.local.size", localPages, Cache::estimatedSize);
+    }
+
+    /**
+     * Returns the cached page, looking at the local cache first and Redis second.
+     * An empty list means the page is not cached in either tier.
+     */
+    public List<Movie> get(String cacheKey) {
+        return getAll(List.of(cacheKey)).get(cacheKey);
+    }
+
+    /**
+     * Returns the cached pages keyed by cache key, in the order requested. Pages missing from the
+     * local cache are read from Redis in one pipeline; pages cached in neither tier map to an empty list.
+     */
+    public Map<String, List<Movie>> getAll(Collection<String> cacheKeys) {
+        Map<String, List<Movie>> pages = new LinkedHashMap<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (String cacheKey : cacheKeys) {
+            List<Movie> local = getLocal(cacheKey);
+            pages.put(cacheKey, local == null ? List.of() : local);
+            if (local == null) {
+                remoteKeys.add(cacheKey);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return pages;
+        }
+
+        //Each page contributes LRANGE and PTTL of the list followed by GET and PTTL of the binary value
+        List<Object> results = productRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String cacheKey : remoteKeys) {
+                byte[] listKey = rawKey(cacheKey);
+                byte[] binaryKey = rawKey(binaryKey(cacheKey));
+                connection.listCommands().lRange(listKey, 0, -1);
+                connection.keyCommands().pTtl(listKey);
+                connection.stringCommands().get(binaryKey);
+                connection.keyCommands().pTtl(binaryKey);
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        List<StoredPage> storedPages = new ArrayList<>(remoteKeys.size());
+        Set<Integer> movieIds = new HashSet<>();
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            @SuppressWarnings("unchecked")
+            List<byte[]> listElements = (List<byte[]>) results.get(4 * i);
+            StoredPage storedPage = decode(listElements, (Long) results.get(4 * i + 1),
+                    (byte[]) results.get(4 * i + 2), (Long) results.get(4 * i + 3));
+            storedPages.add(storedPage);
+            movieIds.addAll(storedPage.movieIds());
+        }
+        Map<Integer, Movie> movies = movieStore.findAll(movieIds);
+
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            String cacheKey = remoteKeys.get(i);
+            pages.put(cacheKey, accept(cacheKey, storedPages.get(i), movies));
+        }
+        return pages;
+    }
+
+    /**
+     * Replaces a page in Redis together with its expiry, keeps a local copy and tells the other
+     * replicas to drop theirs. Readers see either the old page or the new one, never a mix.
+     * Returns the instance now held locally, so the caller serves the same list later hits return.
+     */
+    public List<Movie> put(String cacheKey, List<Movie> movies, Duration ttl) {
+        return putAll(Map.of(cacheKey, movies), ttl).getOrDefault(cacheKey, movies);
+    }
+
+    /**
+     * Replaces several pages sharing the same expiry in one pipeline; each page is still replaced atomically.
+     */
+    public Map<String, List<Movie>> putAll(Map<String, List<Movie>> pages, Duration ttl) {
+        Map<String, List<Movie>> nonEmptyPages = new LinkedHashMap<>();
+        pages.forEach((cacheKey, movies) -> {
+            if (!movies.isEmpty()) {
+                nonEmptyPages.put(cacheKey, movies);
+            }
+        });
+        if (nonEmptyPages.isEmpty()) {
+            return Map.of();
+        }
+
+        productRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            nonEmptyPages.forEach((cacheKey, movies) -> writePage(connection, cacheKey, movies, ttl));
+            return null;
+        });
+
+        Map<String, List<Movie>> held = new LinkedHashMap<>();
+        nonEmptyPages.forEach((cacheKey, movies) -> {
+            held.put(cacheKey, putLocal(cacheKey, movies, ttl));
+            publishInvalidation(cacheKey);
+        });
+        return held;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        String cacheKey = body.substring(separator + 1);
+        localPages.invalidate(cacheKey);
+        invalidationsReceived.increment();
+        log.debug("Local movie page invalidated by another replica: key={}", cacheKey);
+    }
+
+    /**
+     * Drops every locally cached page. Redis is left untouched.
+     */
+    public void clearLocal() {
+        localPages.invalidateAll();
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    /**
+     * The Redis key a page is written to in the configured format.
+     */
+    public String storageKey(String cacheKey) {
+        return format == MoviePageFormat.BINARY ? binaryKey(cacheKey) : cacheKey;
+    }
+
+    /**
+     * The locally cached page, or null when it has to be read from Redis.
+     */
+    List<Movie> getLocal(String cacheKey) {
+        CachedPage local = localPages.getIfPresent(cacheKey);
+        if (local == null) {
+            localMisses.increment();
+            return null;
+        }
+        localHits.increment();
+        return local.movies();
+    }
+
+    //Only the format that is actually served gets decoded
+    StoredPage decode(List<byte[]> listElements, Long listTtl, byte[] binaryValue, Long binaryTtl) {
+        boolean useBinary = binaryValue != null
+                && (format == MoviePageFormat.BINARY || listElements == null || listElements.isEmpty());
+        return useBinary
+                ? new StoredPage(decodeBinary(binaryValue), List.of(), binaryTtl)
+                : decodeList(listElements, listTtl);
+    }
+
+    /**
+     * Resolves a page read from Redis against the stored movies and keeps it locally. Returns the
+     * local copy, or an empty list when the page is not fully cached.
+     */
+    List<Movie> accept(String cacheKey, StoredPage storedPage, Map<Integer, Movie> storedMovies) {
+        List<Movie> page = storedPage.resolve(storedMovies);
+        if (page.isEmpty()) {
+            redisMisses.increment();
+            return List.of();
+        }
+        redisHits.increment();
+
+        Long remainingMillis = storedPage.remainingMillis();
+        Duration redisTtl = remainingMillis == null || remainingMillis < 0
+                ? localTtl
+                : Duration.ofMillis(remainingMillis);
+        return putLocal(cacheKey, page, redisTtl);
+    }
+
+    MoviePageFormat getFormat() {
+        return format;
+    }
+
+    String invalidationMessage(String cacheKey) {
+        return nodeId + "|" + cacheKey;
+    }
+
+    private void writePage(RedisConnection connection, String cacheKey, List<Movie> movies, Duration ttl) {
+        if (format == MoviePageFormat.BINARY) {
+            connection.stringCommands().set(rawKey(binaryKey(cacheKey)), MoviePageCodec.encode(movies),
+                    Expiration.milliseconds(ttl.toMillis()), RedisStringCommands.SetOption.upsert());
+            return;
+        }
+
+        //Movies first, so the ids never point at movies that are not stored yet
+        movieStore.writeTo(connection, movies);
+
+        byte[][] keysAndArgs = new byte[movies.size() + 2][];
+        keysAndArgs[0] = rawKey(cacheKey);
+        keysAndArgs[1] = Long.toString(ttl.toMillis()).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < movies.size(); i++) {
+            keysAndArgs[i + 2] = Integer.toString(movies.get(i).id()).getBytes(StandardCharsets.UTF_8);
+        }
+        connection.scriptingCommands().eval(REPLACE_PAGE, ReturnType.INTEGER, 1, keysAndArgs);
+    }
+
+    //Id lists are resolved later; lists written before the id lists still hold JSON movies
+    private StoredPage decodeList(List<byte[]> elements, Long remainingMillis) {
+        if (elements == null || elements.isEmpty()) {
+            return new StoredPage(List.of(), List.of(), remainingMillis);
+        }
+        if (elements.get(0).length > 0 && elements.get(0)[0] == '{') {
+            List<Movie> movies = new ArrayList<>(elements.size());
+            for (byte[] element : elements) {
+                movies.add(valueSerializer().deserialize(element));
+            }
+            return new StoredPage(movies, List.of(), remainingMillis);
+        }
+        List<Integer> movieIds = new ArrayList<>(elements.size());
+        for (byte[] element : elements) {
+            movieIds.add(Integer.parseInt(new String(element, StandardCharsets.US_ASCII)));
+        }
+        return new StoredPage(List.of(), movieIds, remainingMillis);
+    }
+
+    private List<Movie> decodeBinary(byte[] page) {
+        if (page == null) {
+            return List.of();
+        }
+        try {
+            return MoviePageCodec.decode(page);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring unreadable binary movie page: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Movie> valueSerializer() {
+        return (RedisSerializer<Movie>) productRedisTemplate.getValueSerializer();
+    }
+
+    static String binaryKey(String cacheKey) {
+        return cacheKey + ":bin";
+    }
+
+    private byte[] rawKey(String cacheKey) {
+        return cacheKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void publishInvalidation(String cacheKey) {
+        stringRedisTemplate.convertAndSend(invalidationChannel, invalidationMessage(cacheKey));
+    }
+
+    //Returns the instance now held locally, so callers serve the same list that later hits return
+    List<Movie> putLocal(String cacheKey, List<Movie> movies, Duration redisTtl) {
+        if (movies.isEmpty()) {
+            return movies;
+        }
+        Duration ttl = redisTtl.compareTo(localTtl) < 0 ? redisTtl : localTtl;
+        List<Movie> localCopy = List.copyOf(movies);
+        localPages.put(cacheKey, new CachedPage(localCopy, ttl));
+        eventPublisher.publishEvent(new MoviesCachedEvent(MovieListing.forCacheKey(cacheKey), localCopy));
+        return localCopy;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("movie.page.cache.requests")
+                .description("Movie page cache lookups per cache tier")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedPage(List<Movie> movies, Duration ttl) {
+    }
+
+    //A page as read from Redis: either whole movies or ids still to be resolved
+    record StoredPage(List<Movie> movies, List<Integer> movieIds, Long remainingMillis) {
+
+        //A page with a movie that is no longer stored counts as a miss
+        List<Movie> resolve(Map<Integer, Movie> storedMovies) {
+            if (movieIds.isEmpty()) {
+                return movies;
+            }
+            List<Movie> resolved = new ArrayList<>(movieIds.size());
+            for (Integer movieId : movieIds) {
+                Movie movie = storedMovies.get(movieId);
+                if (movie == null) {
+                    return List.of();
+                }
+                resolved.add(movie);
+            }
+            return resolved;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of a whole movie page, stored in Redis as one value instead of one JSON
+ * list element per movie.
+ * <p>
+ * Layout: magic byte, format version, uncompressed length (varint), then an LZ4 block holding the
+ * movie count followed by every movie's fields in declaration order. Integers are varints, strings
+ * are length-prefixed UTF-8 (0 marks null) and the booleans share one flags byte. Any change to the
+ * field list must bump {@link #VERSION} and keep decoding the older versions.
+ */
+public final class MoviePageCodec {
+
+    private static final byte MAGIC = 'M';
+    private static final byte VERSION = 1;
+
+    private static final int ADULT = 1;
+    private static final int VIDEO = 1 << 1;
+    private static final int FAVORITE = 1 << 2;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private MoviePageCodec() {
+    }
+
+    public static byte[] encode(List<Movie> movies) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(movies.size() * 256);
+        writeVarInt(out, movies.size());
+        for (Movie movie : movies) {
+            writeVarInt(out, movie.id());
+            writeString(out, movie.title());
+            writeString(out, movie.original_title());
+            writeString(out, movie.overview());
+            writeString(out, movie.release_date());
+            writeString(out, movie.poster_path());
+            writeString(out, movie.backdrop_path());
+            writeDouble(out, movie.popularity());
+            writeDouble(out, movie.vote_average());
+            writeVarInt(out, movie.vote_count());
+            writeGenres(out, movie.genre_ids());
+            writeString(out, movie.original_language());
+            out.write((movie.adult() ? ADULT : 0) | (movie.video() ? VIDEO : 0) | (movie.isFavorite() ? FAVORITE : 0));
+        }
+        byte[] raw = out.toByteArray();
+
+        byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(raw.length)];
+        int compressedLength = COMPRESSOR.compress(raw, 0, raw.length, compressed, 0, compressed.length);
+
+        ByteArrayOutputStream page = new ByteArrayOutputStream(compressedLength + 8);
+        page.write(MAGIC);
+        page.write(VERSION);
+        writeVarInt(page, raw.length);
+        page.write(compressed, 0, compressedLength);
+        return page.toByteArray();
+    }
+
+    public static List<Movie> decode(byte[] page) {
+        ByteBuffer header = ByteBuffer.wrap(page);
+        if (header.get() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary movie page");
+        }
+        byte version = header.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary movie page version: " + version);
+        }
+        int rawLength = readVarInt(header);
+        byte[] raw = new byte[rawLength];
+        DECOMPRESSOR.decompress(page, header.position(), raw, 0, rawLength);
+
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        int count = readVarInt(in);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = readVarInt(in);
+            String title = readString(in);
+            String originalTitle = readString(in);
+            String overview = readString(in);
+            String releaseDate = readString(in);
+            String posterPath = readString(in);
+            String backdropPath = readString(in);
+            double popularity = in.getDouble();
+            double voteAverage = in.getDouble();
+            int voteCount = readVarInt(in);
+            List<Integer> genreIds = readGenres(in);
+            String originalLanguage = readString(in);
+            int flags = in.get();
+            movies.add(new Movie(id, title, originalTitle, overview, releaseDate, posterPath, backdropPath,
+                    popularity, voteAverage, voteCount, genreIds, originalLanguage,
+                    (flags & ADULT) != 0, (flags & VIDEO) != 0, (flags & FAVORITE) != 0));
+        }
+        return movies;
+    }
+
+    private static void writeGenres(ByteArrayOutputStream out, List<Integer> genreIds) {
+        if (genreIds == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, genreIds.size() + 1);
+        for (Integer genreId : genreIds) {
+            writeVarInt(out, genreId);
+        }
+    }
+
+    private static List<Integer> readGenres(ByteBuffer in) {
+        int size = readVarInt(in) - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<Integer> genreIds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            genreIds.add(readVarInt(in));
+        }
+        return genreIds;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, double value) {
+        long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (bits >>> shift));
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.movies.movieserver.movie.cache;
+
+/**
+ * How movie pages are written to Redis. Pages in either format are always readable, so the
+ * format can be switched one replica at a time.
+ */
+public enum MoviePageFormat {
+
+    /** One JSON list element per movie, under the page key itself. */
+    JSON,
+
+    /** The whole page as one {@link MoviePageCodec} value, under the page key plus {@code :bin}. */
+    BINARY
+}
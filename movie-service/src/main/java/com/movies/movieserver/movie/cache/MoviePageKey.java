@@ -0,0 +1,18 @@
+package com.movies.movieserver.movie.cache;
+
+/**
+ * Identifies one page of a TMDB listing endpoint in a given locale.
+ * <p>
+ * The locale is pinned per endpoint today, so it is not part of the Redis cache key; it is part of
+ * the key used to coalesce concurrent TMDB fetches.
+ */
+public record MoviePageKey(String endpoint, int page, String language, String region) {
+
+    public String cacheKey() {
+        return endpoint + ":page_" + page;
+    }
+
+    public String flightKey() {
+        return cacheKey() + ":" + language + ":" + region;
+    }
+}
@@ -0,0 +1,163 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.governor.MovieApiThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Fills missing movie pages with at most one TMDB fetch per page.
+ * <p>
+ * Within a replica, concurrent callers for the same page share one in-flight fetch. Across replicas,
+ * a short Redis lease decides which node refills the page; the others poll the cache until the page
+ * shows up, and keep trying to take the lease so one of them takes over if the holder dies. The wait
+ * always outlasts the lease, so a slow TMDB never sends the waiting nodes to fetch alongside the holder;
+ * a caller that still has no page when it times out fails with {@link MovieApiThrottledException}.
+ */
+@Component
+@Slf4j
+public class MoviePageLoader {
+
+    //Only deletes the lease if it is still ours
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final MoviePageCache moviePageCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration leaseTtl;
+    private final Duration maxWait;
+    private final Duration pollInterval;
+
+    private final ConcurrentHashMap<String, CompletableFuture<List<Movie>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter fetched;
+    private final Counter coalesced;
+    private final Counter filledByOtherNode;
+    private final Counter timedOut;
+
+    public MoviePageLoader(MoviePageCache moviePageCache,
+                           StringRedisTemplate stringRedisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${movie.cache.lease.ttl:10s}") Duration leaseTtl,
+                           @Value("${movie.cache.lease.max-wait:15s}") Duration maxWait,
+                           @Value("${movie.cache.lease.poll-interval:50ms}") Duration pollInterval) {
+        this.moviePageCache = moviePageCache;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leaseTtl = leaseTtl;
+        //Shorter than the lease, waiters would give up while the holder is still fetching
+        this.maxWait = maxWait.compareTo(leaseTtl) < 0 ? leaseTtl : maxWait;
+        this.pollInterval = pollInterval;
+
+        this.fetched = loads(meterRegistry, "fetched");
+        this.coalesced = loads(meterRegistry, "coalesced");
+        this.filledByOtherNode = loads(meterRegistry, "remote");
+        this.timedOut = loads(meterRegistry, "timeout");
+    }
+
+    /**
+     * Returns the page, fetching it with {@code fetcher} and caching it for {@code ttl} only if no
+     * other caller on this node or elsewhere in the cluster is already doing so.
+     */
+    public List<Movie> load(MoviePageKey pageKey, Duration ttl, Supplier<List<Movie>> fetcher) {
+        CompletableFuture<List<Movie>> flight = new CompletableFuture<>();
+        CompletableFuture<List<Movie>> existing = inFlight.putIfAbsent(pageKey.flightKey(), flight);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        try {
+            flight.complete(loadOnce(pageKey, ttl, fetcher));
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+        } finally {
+            inFlight.remove(pageKey.flightKey(), flight);
+        }
+        return join(flight);
+    }
+
+    private List<Movie> loadOnce(MoviePageKey pageKey, Duration ttl, Supplier<List<Movie>> fetcher) {
+        String cacheKey = pageKey.cacheKey();
+        String leaseKey = "lease:" + pageKey.flightKey();
+        long deadline = System.nanoTime() + maxWait.toNanos();
+
+        while (true) {
+            String token = UUID.randomUUID().toString();
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTtl))) {
+                try {
+                    //Another node may have finished between our cache miss and taking the lease
+                    List<Movie> cached = moviePageCache.get(cacheKey);
+                    if (!cached.isEmpty()) {
+                        filledByOtherNode.increment();
+                        return cached;
+                    }
+                    return fetchAndCache(cacheKey, ttl, fetcher);
+                } finally {
+                    stringRedisTemplate.execute(RELEASE_LEASE, List.of(leaseKey), token);
+                }
+            }
+
+            if (System.nanoTime() - deadline > 0) {
+                log.warn("Timed out waiting for another node to load movie page: key={}", cacheKey);
+                timedOut.increment();
+                throw new MovieApiThrottledException("Timed out waiting for movie page " + cacheKey);
+            }
+            sleep(pollInterval);
+
+            List<Movie> cached = moviePageCache.get(cacheKey);
+            if (!cached.isEmpty()) {
+                filledByOtherNode.increment();
+                return cached;
+            }
+        }
+    }
+
+    private List<Movie> fetchAndCache(String cacheKey, Duration ttl, Supplier<List<Movie>> fetcher) {
+        List<Movie> movies = fetcher.get();
+        fetched.increment();
+        //The cached copy, so the first response after a miss hits the renderer's cache like later ones
+        return moviePageCache.put(cacheKey, movies, ttl);
+    }
+
+    private static List<Movie> join(CompletableFuture<List<Movie>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a movie page", e);
+        }
+    }
+
+    private static Counter loads(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("movie.page.loads")
+                .description("Movie page cache misses by how they were resolved")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
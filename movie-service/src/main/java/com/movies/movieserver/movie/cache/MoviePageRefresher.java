@@ -0,0 +1,145 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Re-warms the movie pages users actually request shortly before their Redis entry expires, so the
+ * request path keeps hitting a warm cache. Each refreshed page is swapped in atomically by
+ * {@link MoviePageCache#putAll}.
+ * <p>
+ * Pages that have not been requested for a while are dropped from tracking and left to expire.
+ * Request-path misses that still reach TMDB are counted by {@link MoviePageLoader}.
+ */
+@Component
+@Slf4j
+public class MoviePageRefresher {
+
+    private final MoviePageCache moviePageCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration refreshAhead;
+    private final Duration idleAfter;
+    private final Duration claimTtl;
+
+    private final Map<String, TrackedPage> trackedPages = new ConcurrentHashMap<>();
+
+    private final Timer refreshTimer;
+    private final Counter refreshFailures;
+
+    public MoviePageRefresher(MoviePageCache moviePageCache,
+                              StringRedisTemplate stringRedisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${movie.cache.refresh.ahead:5m}") Duration refreshAhead,
+                              @Value("${movie.cache.refresh.idle-after:30m}") Duration idleAfter,
+                              @Value("${movie.cache.refresh.interval:60s}") Duration claimTtl) {
+        this.moviePageCache = moviePageCache;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.refreshAhead = refreshAhead;
+        this.idleAfter = idleAfter;
+        this.claimTtl = claimTtl;
+
+        this.refreshTimer = Timer.builder("movie.page.refresh")
+                .description("Time spent re-fetching a movie page ahead of expiry")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("movie.page.refresh.failures")
+                .description("Refresh-ahead attempts that failed")
+                .register(meterRegistry);
+        meterRegistry.gauge("movie.page.refresh.tracked", trackedPages, Map::size);
+    }
+
+    /**
+     * Remembers that a page was requested, along with how to re-fetch it and how long it is cached.
+     */
+    public void recordAccess(MoviePageKey pageKey, Duration ttl, Supplier<List<Movie>> fetcher) {
+        trackedPages.put(pageKey.flightKey(), new TrackedPage(pageKey, ttl, fetcher, System.nanoTime()));
+    }
+
+    @Scheduled(fixedDelayString = "${movie.cache.refresh.interval:60s}")
+    public void refreshExpiringPages() {
+        long now = System.nanoTime();
+        List<TrackedPage> candidates = new ArrayList<>();
+        for (Map.Entry<String, TrackedPage> entry : trackedPages.entrySet()) {
+            TrackedPage tracked = entry.getValue();
+            if (now - tracked.lastAccessNanos() > idleAfter.toNanos()) {
+                trackedPages.remove(entry.getKey(), tracked);
+            } else {
+                candidates.add(tracked);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<Object> remainingMillis = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (TrackedPage tracked : candidates) {
+                String storageKey = moviePageCache.storageKey(tracked.pageKey().cacheKey());
+                connection.keyCommands().pTtl(storageKey.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+
+        //Fetch every expiring page first, then write them back grouped by expiry in one pipeline each
+        Map<Duration, Map<String, List<Movie>>> refreshedPages = new HashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            TrackedPage tracked = candidates.get(i);
+            if (!isExpiringSoon((Long) remainingMillis.get(i)) || !claim(tracked.pageKey())) {
+                continue;
+            }
+            List<Movie> movies = fetch(tracked);
+            if (movies != null) {
+                refreshedPages.computeIfAbsent(tracked.ttl(), ttl -> new LinkedHashMap<>())
+                        .put(tracked.pageKey().cacheKey(), movies);
+            }
+        }
+        refreshedPages.forEach((ttl, pages) -> moviePageCache.putAll(pages, ttl));
+    }
+
+    private boolean isExpiringSoon(Long remainingMillis) {
+        if (remainingMillis == null || remainingMillis == -1) {
+            return false;
+        }
+        //-2 means the page already expired
+        return remainingMillis == -2 || remainingMillis <= refreshAhead.toMillis();
+    }
+
+    //Only one replica refreshes a given page per cycle
+    private boolean claim(MoviePageKey pageKey) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                .setIfAbsent("refresh:" + pageKey.flightKey(), "1", claimTtl));
+    }
+
+    private List<Movie> fetch(TrackedPage tracked) {
+        try {
+            List<Movie> movies = refreshTimer.record(() -> tracked.fetcher().get());
+            log.debug("Movie page refreshed ahead of expiry: key={}", tracked.pageKey().cacheKey());
+            return movies;
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            log.warn("Failed to refresh movie page: key={}, error={}",
+                    tracked.pageKey().cacheKey(), e.getMessage());
+            return null;
+        }
+    }
+
+    private record TrackedPage(MoviePageKey pageKey, Duration ttl, Supplier<List<Movie>> fetcher,
+                               long lastAccessNanos) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One canonical Redis entry per TMDB movie, under {@code movie:<id>}. Cached pages and the catalog
+ * only hold ordered movie ids and resolve them here, so a movie listed in several pages and
+ * listings is stored once.
+ * <p>
+ * Every write pushes the entry's expiry forward, so movies that are no longer listed anywhere
+ * eventually disappear on their own. The expiry must outlive the pages referencing the movie.
+ */
+@Component
+public class MovieStore {
+
+    private final RedisTemplate<String, Movie> productRedisTemplate;
+    private final Duration movieTtl;
+
+    public MovieStore(RedisTemplate<String, Movie> productRedisTemplate,
+                      @Value("${movie.store.ttl:1d}") Duration movieTtl) {
+        this.productRedisTemplate = productRedisTemplate;
+        this.movieTtl = movieTtl;
+    }
+
+    public void putAll(Collection<Movie> movies) {
+        if (movies.isEmpty()) {
+            return;
+        }
+        productRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            writeTo(connection, movies);
+            return null;
+        });
+    }
+
+    /**
+     * Resolves the ids with a single MGET, in order. Movies that are not stored are left out.
+     */
+    public List<Movie> getAll(List<Integer> ids) {
+        Map<Integer, Movie> movies = findAll(ids);
+        List<Movie> ordered = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Movie movie = movies.get(id);
+            if (movie != null) {
+                ordered.add(movie);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Resolves the ids with a single MGET. Movies that are not stored have no entry in the result.
+     */
+    public Map<Integer, Movie> findAll(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<Integer> idList = List.copyOf(ids);
+        List<String> keys = new ArrayList<>(idList.size());
+        for (Integer id : idList) {
+            keys.add(key(id));
+        }
+        List<Movie> movies = productRedisTemplate.opsForValue().multiGet(keys);
+        if (movies == null) {
+            return Map.of();
+        }
+        Map<Integer, Movie> found = new HashMap<>();
+        for (int i = 0; i < idList.size(); i++) {
+            if (movies.get(i) != null) {
+                found.put(idList.get(i), movies.get(i));
+            }
+        }
+        return found;
+    }
+
+    //Lets callers write movies as part of their own pipeline
+    void writeTo(RedisConnection connection, Collection<Movie> movies) {
+        for (Movie movie : movies) {
+            connection.stringCommands().set(key(movie.id()).getBytes(StandardCharsets.UTF_8),
+                    serialize(movie),
+                    Expiration.milliseconds(movieTtl.toMillis()),
+                    RedisStringCommands.SetOption.upsert());
+        }
+    }
+
+    byte[] serialize(Movie movie) {
+        return valueSerializer().serialize(movie);
+    }
+
+    Movie deserialize(byte[] movie) {
+        return valueSerializer().deserialize(movie);
+    }
+
+    Duration getMovieTtl() {
+        return movieTtl;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Movie> valueSerializer() {
+        return (RedisSerializer<Movie>) productRedisTemplate.getValueSerializer();
+    }
+
+    static String key(int id) {
+        return "movie:" + id;
+    }
+}
@@ -0,0 +1,15 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.MovieListing;
+
+import java.util.List;
+
+/**
+ * Published when movies enter this replica's caches, either as a page that was loaded or read from
+ * Redis or as movies ingested into the catalog. Listeners run on the caller's thread.
+ *
+ * @param listing the listing the movies were listed in, null when it is not known
+ */
+public record MoviesCachedEvent(MovieListing listing, List<Movie> movies) {
+}
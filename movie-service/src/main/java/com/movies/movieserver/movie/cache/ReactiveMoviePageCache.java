@@ -0,0 +1,150 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking access to the same two cache tiers as {@link MoviePageCache}, used by the
+ * {@code reactive} profile.
+ * <p>
+ * The local cache, the Redis key layout and the page formats are shared with {@link MoviePageCache},
+ * so both request paths read each other's pages and invalidations. Redis is reached through reactive
+ * Lettuce; the commands of one page are sent without waiting for each other, which Lettuce pipelines
+ * on its shared connection.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveMoviePageCache {
+
+    private final MoviePageCache moviePageCache;
+    private final MovieStore movieStore;
+    private final ReactiveRedisTemplate<String, byte[]> movieReactiveRedisTemplate;
+
+    public ReactiveMoviePageCache(MoviePageCache moviePageCache,
+                                  MovieStore movieStore,
+                                  ReactiveRedisTemplate<String, byte[]> movieReactiveRedisTemplate) {
+        this.moviePageCache = moviePageCache;
+        this.movieStore = movieStore;
+        this.movieReactiveRedisTemplate = movieReactiveRedisTemplate;
+    }
+
+    /**
+     * Emits the cached page, looking at the local cache first and Redis second.
+     * An empty list means the page is not cached in either tier.
+     */
+    public Mono<List<Movie>> get(String cacheKey) {
+        List<Movie> local = moviePageCache.getLocal(cacheKey);
+        if (local != null) {
+            return Mono.just(local);
+        }
+        return movieReactiveRedisTemplate.execute(connection -> readPage(connection, cacheKey)).next();
+    }
+
+    /**
+     * Replaces a page in Redis together with its expiry, exactly like {@link MoviePageCache#put}, and
+     * emits the local copy that later hits will return.
+     */
+    public Mono<List<Movie>> put(String cacheKey, List<Movie> movies, Duration ttl) {
+        if (movies.isEmpty()) {
+            return Mono.just(movies);
+        }
+        byte[] invalidation = moviePageCache.invalidationMessage(cacheKey).getBytes(StandardCharsets.UTF_8);
+        return movieReactiveRedisTemplate.execute(connection -> writePage(connection, cacheKey, movies, ttl))
+                .then(movieReactiveRedisTemplate.convertAndSend(moviePageCache.getInvalidationChannel(), invalidation))
+                .then(Mono.fromSupplier(() -> moviePageCache.putLocal(cacheKey, movies, ttl)));
+    }
+
+    private Mono<List<Movie>> readPage(ReactiveRedisConnection connection, String cacheKey) {
+        String binaryKey = MoviePageCache.binaryKey(cacheKey);
+        Mono<List<byte[]>> listElements = connection.listCommands().lRange(buffer(cacheKey), 0, -1)
+                .map(ReactiveMoviePageCache::bytes)
+                .collectList();
+        Mono<Optional<byte[]>> binaryValue = connection.stringCommands().get(buffer(binaryKey))
+                .map(value -> Optional.of(bytes(value)))
+                .defaultIfEmpty(Optional.empty());
+
+        return Mono.zip(listElements, connection.keyCommands().pTtl(buffer(cacheKey)),
+                        binaryValue, connection.keyCommands().pTtl(buffer(binaryKey)))
+                .flatMap(results -> {
+                    MoviePageCache.StoredPage storedPage = moviePageCache.decode(results.getT1(), results.getT2(),
+                            results.getT3().orElse(null), results.getT4());
+                    return findMovies(connection, storedPage.movieIds())
+                            .map(movies -> moviePageCache.accept(cacheKey, storedPage, movies));
+                });
+    }
+
+    //Reactive counterpart of MovieStore#findAll: one MGET, missing movies have no entry
+    private Mono<Map<Integer, Movie>> findMovies(ReactiveRedisConnection connection, List<Integer> movieIds) {
+        if (movieIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        List<ByteBuffer> keys = new ArrayList<>(movieIds.size());
+        for (Integer movieId : movieIds) {
+            keys.add(buffer(MovieStore.key(movieId)));
+        }
+        return connection.stringCommands().mGet(keys).map(values -> {
+            Map<Integer, Movie> movies = new HashMap<>();
+            for (int i = 0; i < movieIds.size(); i++) {
+                ByteBuffer value = values.get(i);
+                if (value != null && value.hasRemaining()) {
+                    movies.put(movieIds.get(i), movieStore.deserialize(bytes(value)));
+                }
+            }
+            return movies;
+        });
+    }
+
+    private Mono<Void> writePage(ReactiveRedisConnection connection, String cacheKey, List<Movie> movies, Duration ttl) {
+        if (moviePageCache.getFormat() == MoviePageFormat.BINARY) {
+            return connection.stringCommands()
+                    .set(buffer(MoviePageCache.binaryKey(cacheKey)), ByteBuffer.wrap(MoviePageCodec.encode(movies)),
+                            Expiration.milliseconds(ttl.toMillis()), RedisStringCommands.SetOption.upsert())
+                    .then();
+        }
+
+        //Movies first, so the ids never point at movies that are not stored yet
+        Expiration movieExpiration = Expiration.milliseconds(movieStore.getMovieTtl().toMillis());
+        Mono<Void> storeMovies = Flux.fromIterable(movies)
+                .flatMap(movie -> connection.stringCommands().set(buffer(MovieStore.key(movie.id())),
+                        ByteBuffer.wrap(movieStore.serialize(movie)), movieExpiration,
+                        RedisStringCommands.SetOption.upsert()))
+                .then();
+
+        ByteBuffer[] keysAndArgs = new ByteBuffer[movies.size() + 2];
+        keysAndArgs[0] = buffer(cacheKey);
+        keysAndArgs[1] = buffer(Long.toString(ttl.toMillis()));
+        for (int i = 0; i < movies.size(); i++) {
+            keysAndArgs[i + 2] = buffer(Integer.toString(movies.get(i).id()));
+        }
+        return storeMovies.then(connection.scriptingCommands()
+                .eval(ByteBuffer.wrap(MoviePageCache.REPLACE_PAGE), ReturnType.INTEGER, 1, keysAndArgs)
+                .then());
+    }
+
+    private static ByteBuffer buffer(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
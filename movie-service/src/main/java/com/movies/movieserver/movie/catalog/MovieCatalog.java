@@ -0,0 +1,137 @@
+package com.movies.movieserver.movie.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.MovieListing;
+import com.movies.movieserver.movie.cache.MovieStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Locally mirrored copy of a whole TMDB listing, kept as an ordered list of movie ids under
+ * {@code catalog:<listing>} and resolved through {@link MovieStore}. Any page of any size can be cut
+ * from it without calling TMDB.
+ * <p>
+ * {@code catalog:<listing>:state} is {@code complete} once every TMDB page was ingested, or
+ * {@code partial} when the request budget ran out first; pages past a partial catalog are not served.
+ */
+@Component
+public class MovieCatalog {
+
+    private static final String COMPLETE = "complete";
+    private static final String PARTIAL = "partial";
+    private static final int PUSH_CHUNK = 1_000;
+
+    //KEYS[1] = staged ids, KEYS[2] = live ids, KEYS[3] = state, ARGV[1] = ttl in millis, ARGV[2] = state
+    private static final RedisScript<Long> PUBLISH = new DefaultRedisScript<>("""
+            redis.call('RENAME', KEYS[1], KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[1])
+            redis.call('SET', KEYS[3], ARGV[2], 'PX', ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MovieStore movieStore;
+    private final boolean enabled;
+    private final Duration catalogTtl;
+    private final Cache<String, List<Movie>> localPages;
+
+    public MovieCatalog(StringRedisTemplate stringRedisTemplate,
+                        MovieStore movieStore,
+                        @Value("${movie.catalog.enabled:false}") boolean enabled,
+                        @Value("${movie.catalog.ttl:1d}") Duration catalogTtl,
+                        @Value("${movie.catalog.local.ttl:1m}") Duration localTtl,
+                        @Value("${movie.catalog.local.max-pages:256}") long maxLocalPages) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.movieStore = movieStore;
+        this.enabled = enabled;
+        this.catalogTtl = catalogTtl;
+        this.localPages = Caffeine.newBuilder()
+                .maximumSize(maxLocalPages)
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+
+    /**
+     * Cuts a page out of the catalog. Empty when the catalog is disabled, not built yet or does not
+     * cover the page, in which case the caller falls back to the TMDB pages.
+     */
+    public Optional<List<Movie>> page(MovieListing listing, int pageNumber, int pageSize) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String localKey = listing.getKey() + ":" + pageNumber + ":" + pageSize;
+        List<Movie> local = localPages.getIfPresent(localKey);
+        if (local != null) {
+            return Optional.of(local);
+        }
+
+        long start = (long) (pageNumber - 1) * pageSize;
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.listCommands().lRange(raw(idsKey(listing)), start, start + pageSize - 1);
+            connection.stringCommands().get(raw(stateKey(listing)));
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        List<String> ids = (List<String>) results.get(0);
+        String state = (String) results.get(1);
+
+        if (state == null || (ids.size() < pageSize && !COMPLETE.equals(state))) {
+            return Optional.empty();
+        }
+        List<Integer> movieIds = ids.stream().map(Integer::valueOf).toList();
+        List<Movie> movies = movieStore.getAll(movieIds);
+        if (movies.size() < movieIds.size()) {
+            return Optional.empty();
+        }
+        localPages.put(localKey, movies);
+        return Optional.of(movies);
+    }
+
+    /**
+     * Atomically swaps in a freshly ingested listing. The movies themselves must already be in the
+     * {@link MovieStore}.
+     */
+    public void replace(MovieListing listing, List<Integer> movieIds, boolean complete) {
+        String stagedKey = idsKey(listing) + ":staged";
+        stringRedisTemplate.delete(stagedKey);
+        for (int from = 0; from < movieIds.size(); from += PUSH_CHUNK) {
+            List<String> chunk = new ArrayList<>();
+            for (Integer id : movieIds.subList(from, Math.min(from + PUSH_CHUNK, movieIds.size()))) {
+                chunk.add(id.toString());
+            }
+            stringRedisTemplate.opsForList().rightPushAll(stagedKey, chunk);
+        }
+        if (movieIds.isEmpty()) {
+            return;
+        }
+
+        stringRedisTemplate.execute(PUBLISH,
+                List.of(stagedKey, idsKey(listing), stateKey(listing)),
+                Long.toString(catalogTtl.toMillis()), complete ? COMPLETE : PARTIAL);
+        localPages.invalidateAll();
+    }
+
+    private static String idsKey(MovieListing listing) {
+        return "catalog:" + listing.getKey();
+    }
+
+    private static String stateKey(MovieListing listing) {
+        return idsKey(listing) + ":state";
+    }
+
+    private static byte[] raw(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,198 @@
+package com.movies.movieserver.movie.catalog;
+
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.MovieApiResponse;
+import com.movies.movieserver.movie.MovieListing;
+import com.movies.movieserver.movie.MovieListingClient;
+import com.movies.movieserver.movie.cache.MovieStore;
+import com.movies.movieserver.movie.cache.MoviesCachedEvent;
+import com.movies.movieserver.movie.governor.MovieApiPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Periodically walks every page of each {@link MovieListing} and mirrors it into the {@link MovieCatalog}.
+ * <p>
+ * A run never sends more than {@code movie.catalog.max-requests} TMDB requests and spaces them by
+ * {@code movie.catalog.request-interval}. Only one replica ingests per interval.
+ * <p>
+ * The replica that ingests holds a Redis lock of {@code movie.catalog.lock-ttl}, renews it while it walks
+ * the pages and releases it when done, so a replica that dies mid-run only holds the others off for
+ * the lock's TTL. A run that ingested every listing leaves a marker for {@code movie.catalog.ingest-interval},
+ * and the replicas skip their runs until it expires. A failed run leaves none, so the next one retries.
+ */
+@Component
+@ConditionalOnProperty(name = "movie.catalog.enabled", havingValue = "true")
+@Slf4j
+public class MovieCatalogIngester {
+
+    //TMDB refuses pages past 500
+    private static final int TMDB_MAX_PAGE = 500;
+
+    private static final String LOCK_KEY = "catalog:ingest";
+    private static final String INGESTED_KEY = "catalog:ingested";
+
+    //Only deletes the lock if it is still ours
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    //Only extends the lock if it is still ours
+    private static final RedisScript<Long> RENEW_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private final MovieListingClient movieListingClient;
+    private final MovieStore movieStore;
+    private final MovieCatalog movieCatalog;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxRequests;
+    private final Duration requestInterval;
+    private final Duration ingestInterval;
+    private final Duration lockTtl;
+
+    private final Counter tmdbRequests;
+
+    //The lock of the run in progress, only touched by the scheduler thread
+    private String lockToken;
+    private long lockRenewedAt;
+
+    public MovieCatalogIngester(MovieListingClient movieListingClient,
+                                MovieStore movieStore,
+                                MovieCatalog movieCatalog,
+                                StringRedisTemplate stringRedisTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${movie.catalog.max-requests:1000}") int maxRequests,
+                                @Value("${movie.catalog.request-interval:100ms}") Duration requestInterval,
+                                @Value("${movie.catalog.ingest-interval:6h}") Duration ingestInterval,
+                                @Value("${movie.catalog.lock-ttl:1m}") Duration lockTtl) {
+        this.movieListingClient = movieListingClient;
+        this.movieStore = movieStore;
+        this.movieCatalog = movieCatalog;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxRequests = maxRequests;
+        this.requestInterval = requestInterval;
+        this.ingestInterval = ingestInterval;
+        this.lockTtl = lockTtl;
+
+        this.tmdbRequests = Counter.builder("movie.catalog.tmdb.requests")
+                .description("TMDB requests sent by the catalog ingestion")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${movie.catalog.ingest-interval:6h}",
+            initialDelayString = "${movie.catalog.initial-delay:10s}")
+    public void ingest() {
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(INGESTED_KEY))) {
+            log.debug("Catalog was ingested within the interval");
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, lockTtl))) {
+            log.debug("Catalog ingestion is running on another replica");
+            return;
+        }
+        lockToken = token;
+        lockRenewedAt = System.nanoTime();
+        try {
+            boolean complete = true;
+            int budget = maxRequests;
+            for (MovieListing listing : MovieListing.values()) {
+                try {
+                    budget -= ingest(listing, budget);
+                } catch (RuntimeException e) {
+                    complete = false;
+                    log.warn("Catalog ingestion failed, keeping the previous catalog: listing={}, error={}",
+                            listing, e.getMessage());
+                }
+            }
+            if (complete) {
+                stringRedisTemplate.opsForValue().set(INGESTED_KEY, "1", ingestInterval);
+            }
+        } finally {
+            stringRedisTemplate.execute(RELEASE_LOCK, List.of(LOCK_KEY), token);
+            lockToken = null;
+        }
+    }
+
+    //Returns how many TMDB requests were spent
+    private int ingest(MovieListing listing, int budget) {
+        if (budget <= 0) {
+            return 0;
+        }
+        MovieApiResponse firstPage = fetch(listing, 1);
+        Set<Integer> movieIds = new LinkedHashSet<>();
+        store(listing, firstPage.results(), movieIds);
+
+        int lastPage = Math.min(Math.min(firstPage.total_pages(), TMDB_MAX_PAGE), budget);
+        for (int page = 2; page <= lastPage; page++) {
+            sleep(requestInterval);
+            store(listing, fetch(listing, page).results(), movieIds);
+        }
+
+        boolean complete = lastPage >= Math.min(firstPage.total_pages(), TMDB_MAX_PAGE);
+        movieCatalog.replace(listing, new ArrayList<>(movieIds), complete);
+        log.info("Catalog ingested: listing={}, pages={}, movies={}, complete={}",
+                listing, lastPage, movieIds.size(), complete);
+        return Math.max(lastPage, 1);
+    }
+
+    private MovieApiResponse fetch(MovieListing listing, int page) {
+        renewLock();
+        tmdbRequests.increment();
+        return movieListingClient.fetch(listing, page, MovieApiPriority.BACKGROUND);
+    }
+
+    //Pages can shift while they are walked, so a movie is kept at its first position only
+    private void store(MovieListing listing, List<Movie> movies, Set<Integer> movieIds) {
+        if (movies == null) {
+            return;
+        }
+        movieStore.putAll(movies);
+        eventPublisher.publishEvent(new MoviesCachedEvent(listing, List.copyOf(movies)));
+        for (Movie movie : movies) {
+            movieIds.add(movie.id());
+        }
+    }
+
+    //Renews a third of the way into the TTL, and stops the run once another replica could have taken over
+    private void renewLock() {
+        if (System.nanoTime() - lockRenewedAt < lockTtl.toNanos() / 3) {
+            return;
+        }
+        Long renewed = stringRedisTemplate.execute(RENEW_LOCK, List.of(LOCK_KEY), lockToken,
+                Long.toString(lockTtl.toMillis()));
+        if (renewed == null || renewed == 0) {
+            throw new IllegalStateException("Catalog ingestion lock was lost");
+        }
+        lockRenewedAt = System.nanoTime();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while ingesting the movie catalog", e);
+        }
+    }
+}
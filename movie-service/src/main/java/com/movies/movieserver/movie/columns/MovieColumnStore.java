@@ -0,0 +1,102 @@
+package com.movies.movieserver.movie.columns;
+
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.MovieListing;
+import com.movies.movieserver.movie.cache.MoviesCachedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every movie this replica has seen in each {@link MovieListing}, ranked through a columnar
+ * {@link MovieColumns} snapshot.
+ * <p>
+ * Pages feed the store through {@link MoviesCachedEvent}. A movie stays in its listing for the
+ * listing's TTL after it was last seen on a page, so movies that dropped out of the listing age out.
+ * The snapshot is rebuilt on the next query after a change, and at least every
+ * {@code movie.columns.rebuild-interval} to apply that expiry.
+ */
+@Component
+public class MovieColumnStore {
+
+    private final Duration rebuildInterval;
+    private final Map<MovieListing, Listing> listings = new EnumMap<>(MovieListing.class);
+
+    public MovieColumnStore(@Value("${movie.columns.rebuild-interval:1m}") Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+        for (MovieListing listing : MovieListing.values()) {
+            listings.put(listing, new Listing(listing.getTtl()));
+        }
+    }
+
+    @EventListener
+    public void onMoviesCached(MoviesCachedEvent event) {
+        if (event.listing() != null) {
+            listings.get(event.listing()).add(event.movies(), System.currentTimeMillis());
+        }
+    }
+
+    public List<Movie> top(MovieListing listing, MovieRankBy rankBy, Integer genreId, int minVotes, int limit) {
+        return columns(listing).top(rankBy, genreId, minVotes, limit);
+    }
+
+    public int size(MovieListing listing) {
+        return columns(listing).size();
+    }
+
+    private MovieColumns columns(MovieListing listing) {
+        return listings.get(listing).columns(System.currentTimeMillis(), rebuildInterval.toMillis());
+    }
+
+    private static final class Listing {
+
+        private final long retentionMillis;
+        private final Map<Integer, Seen> movies = new ConcurrentHashMap<>();
+        private volatile MovieColumns columns = MovieColumns.EMPTY;
+        private volatile boolean changed;
+        private volatile long builtAt;
+
+        private Listing(Duration retention) {
+            this.retentionMillis = retention.toMillis();
+        }
+
+        private void add(List<Movie> page, long now) {
+            for (Movie movie : page) {
+                Seen previous = movies.put(movie.id(), new Seen(movie, now));
+                if (previous == null || !previous.movie().equals(movie)) {
+                    changed = true;
+                }
+            }
+        }
+
+        private MovieColumns columns(long now, long rebuildIntervalMillis) {
+            if (!changed && now - builtAt < rebuildIntervalMillis) {
+                return columns;
+            }
+            synchronized (this) {
+                if (changed || now - builtAt >= rebuildIntervalMillis) {
+                    //Cleared first, so a page added during the rebuild triggers the next one
+                    changed = false;
+                    movies.values().removeIf(seen -> now - seen.at() > retentionMillis);
+                    List<Movie> current = new ArrayList<>(movies.size());
+                    for (Seen seen : movies.values()) {
+                        current.add(seen.movie());
+                    }
+                    columns = MovieColumns.of(current);
+                    builtAt = now;
+                }
+                return columns;
+            }
+        }
+    }
+
+    private record Seen(Movie movie, long at) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.movies.movieserver.movie.columns;
+
+import com.movies.movieserver.movie.Movie;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of movies laid out column by column in primitive arrays, so ranking scans
+ * read a few contiguous arrays instead of chasing one record and its boxed fields per movie.
+ * <p>
+ * Genres are a bitmask per movie. Each genre id found in the snapshot is assigned one of 64 bits;
+ * genres past the 64th are not filterable. Only the movies that make it into a result are looked up
+ * as records.
+ */
+final class MovieColumns {
+
+    static final MovieColumns EMPTY = of(List.of());
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final int size;
+    private final int[] ids;
+    private final double[] popularity;
+    private final double[] voteAverage;
+    private final int[] voteCount;
+    private final int[] releaseDay;
+    private final long[] genreMasks;
+    private final Movie[] movies;
+    private final Map<Integer, Long> genreBits;
+
+    private MovieColumns(int size, Map<Integer, Long> genreBits) {
+        this.size = size;
+        this.ids = new int[size];
+        this.popularity = new double[size];
+        this.voteAverage = new double[size];
+        this.voteCount = new int[size];
+        this.releaseDay = new int[size];
+        this.genreMasks = new long[size];
+        this.movies = new Movie[size];
+        this.genreBits = genreBits;
+    }
+
+    static MovieColumns of(Collection<Movie> source) {
+        MovieColumns columns = new MovieColumns(source.size(), new HashMap<>());
+        int row = 0;
+        for (Movie movie : source) {
+            columns.ids[row] = movie.id();
+            columns.popularity[row] = movie.popularity();
+            columns.voteAverage[row] = movie.vote_average();
+            columns.voteCount[row] = movie.vote_count();
+            columns.releaseDay[row] = releaseDay(movie.release_date());
+            columns.genreMasks[row] = columns.assignGenres(movie.genre_ids());
+            columns.movies[row] = movie;
+            row++;
+        }
+        return columns;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the best {@code limit} movies by the given column, best first, among those with at
+     * least {@code minVotes} votes and, when {@code genreId} is not null, that genre. Ties go to the
+     * lower movie id. Movies without a release date are never ranked by release date.
+     * <p>
+     * The scan keeps a bounded min-heap of row numbers in two primitive arrays of {@code limit}
+     * entries, so it allocates nothing per movie whatever the snapshot size.
+     */
+    List<Movie> top(MovieRankBy rankBy, Integer genreId, int minVotes, int limit) {
+        long genreMask = 0;
+        if (genreId != null) {
+            Long bit = genreBits.get(genreId);
+            if (bit == null) {
+                return List.of();
+            }
+            genreMask = bit;
+        }
+
+        int[] heapRows = new int[limit];
+        double[] heapKeys = new double[limit];
+        int heapSize = 0;
+        for (int row = 0; row < size; row++) {
+            if ((genreMasks[row] & genreMask) != genreMask || voteCount[row] < minVotes) {
+                continue;
+            }
+            if (rankBy == MovieRankBy.RELEASE_DATE && releaseDay[row] == NO_DATE) {
+                continue;
+            }
+            double key = key(rankBy, row);
+            if (heapSize < limit) {
+                heapRows[heapSize] = row;
+                heapKeys[heapSize] = key;
+                siftUp(heapRows, heapKeys, heapSize++);
+            } else if (limit > 0 && worse(heapRows[0], heapKeys[0], row, key)) {
+                heapRows[0] = row;
+                heapKeys[0] = key;
+                siftDown(heapRows, heapKeys, heapSize);
+            }
+        }
+
+        //Popping the worst first fills the result from the back, best first
+        Movie[] result = new Movie[heapSize];
+        while (heapSize > 0) {
+            result[--heapSize] = movies[heapRows[0]];
+            heapRows[0] = heapRows[heapSize];
+            heapKeys[0] = heapKeys[heapSize];
+            siftDown(heapRows, heapKeys, heapSize);
+        }
+        return Arrays.asList(result);
+    }
+
+    private double key(MovieRankBy rankBy, int row) {
+        return switch (rankBy) {
+            case POPULARITY -> popularity[row];
+            case VOTE_AVERAGE -> voteAverage[row];
+            case VOTE_COUNT -> voteCount[row];
+            case RELEASE_DATE -> releaseDay[row];
+        };
+    }
+
+    //True when row a ranks below row b
+    private boolean worse(int a, double keyA, int b, double keyB) {
+        return keyA < keyB || (keyA == keyB && ids[a] > ids[b]);
+    }
+
+    private void siftUp(int[] rows, double[] keys, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(rows[index], keys[index], rows[parent], keys[parent])) {
+                return;
+            }
+            swap(rows, keys, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] rows, double[] keys, int heapSize) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int right = left + 1;
+            int worst = right < heapSize && worse(rows[right], keys[right], rows[left], keys[left]) ? right : left;
+            if (!worse(rows[worst], keys[worst], rows[index], keys[index])) {
+                return;
+            }
+            swap(rows, keys, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] rows, double[] keys, int i, int j) {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+    }
+
+    private long assignGenres(List<Integer> genreIds) {
+        long mask = 0;
+        if (genreIds == null) {
+            return mask;
+        }
+        for (Integer genreId : genreIds) {
+            Long bit = genreBits.get(genreId);
+            if (bit == null && genreBits.size() < Long.SIZE) {
+                bit = 1L << genreBits.size();
+                genreBits.put(genreId, bit);
+            }
+            if (bit != null) {
+                mask |= bit;
+            }
+        }
+        return mask;
+    }
+
+    private static int releaseDay(String releaseDate) {
+        if (releaseDate == null || releaseDate.isBlank()) {
+            return NO_DATE;
+        }
+        try {
+            return (int) LocalDate.parse(releaseDate).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.movies.movieserver.movie.columns;
+
+/**
+ * The column movies are ranked by, highest first.
+ */
+public enum MovieRankBy {
+    POPULARITY,
+    VOTE_AVERAGE,
+    VOTE_COUNT,
+    RELEASE_DATE
+}
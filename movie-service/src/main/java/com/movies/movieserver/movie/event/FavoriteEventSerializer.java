@@ -0,0 +1,71 @@
+package com.movies.movieserver.movie.event;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes favorite events in Avro's single-object encoding: a two byte marker, the fingerprint of the
+ * event's schema and the binary record. The fingerprint tells consumers which schema version wrote the
+ * record, so they need neither a type header nor a copy of the event class.
+ * <p>
+ * The header is written here instead of through Avro's {@code BinaryMessageEncoder}, which costs about
+ * as much again as encoding the record itself.
+ */
+public class FavoriteEventSerializer implements Serializer<Object> {
+
+    //Buffers the small writes, but sized for one event rather than Avro's default 2KB
+    private static final EncoderFactory ENCODERS = new EncoderFactory().configureBufferSize(256);
+
+    private final Map<Schema, Writer> writers = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (!(data instanceof SpecificRecord record)) {
+            throw new SerializationException("Not a favorite event: " + data.getClass().getName());
+        }
+        Writer writer = writers.computeIfAbsent(record.getSchema(), Writer::new);
+        //Fits an added event with a long overview without growing
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try {
+            out.write(writer.header);
+            BinaryEncoder encoder = ENCODERS.binaryEncoder(out, null);
+            writer.datumWriter.write(record, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write favorite event: topic=" + topic, e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Writer {
+
+        private final byte[] header;
+        private final SpecificDatumWriter<SpecificRecord> datumWriter;
+
+        private Writer(Schema schema) {
+            //C3 01, then the little-endian CRC-64-AVRO fingerprint of the schema
+            this.header = ByteBuffer.allocate(10).order(ByteOrder.LITTLE_ENDIAN)
+                    .put((byte) 0xC3).put((byte) 0x01)
+                    .putLong(SchemaNormalization.parsingFingerprint64(schema))
+                    .array();
+            this.datumWriter = new SpecificDatumWriter<>(schema, SpecificData.getForSchema(schema));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.movies.movieserver.movie.event;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movies.events.CatalogMovie;
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.MovieListingClient;
+import com.movies.movieserver.movie.cache.MovieStore;
+import com.movies.movieserver.movie.cache.MoviesCachedEvent;
+import com.movies.movieserver.movie.governor.MovieApiPriority;
+import com.movies.movieserver.movie.governor.MovieApiThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the canonical movies this replica sees to the compacted {@code movie-catalog} topic, keyed
+ * by movie id, so favorite events only need to carry ids.
+ * <p>
+ * Movies are collected from cached pages and from favorites and sent every
+ * {@code movie.catalog.topic.flush-interval}, so caching a page never waits for Kafka. Pages are cached on
+ * every local fill, reads included, so they only queue the movies as they are; converting them to catalog
+ * records is left to the flush. A movie is only
+ * sent again when it changed or once {@code movie.catalog.topic.republish-after} has passed.
+ * <p>
+ * A favorited movie that is no longer stored and was not sent recently is fetched from TMDB at
+ * background priority by the next flush, so every favorite's movie reaches the catalog.
+ */
+@Component
+@Slf4j
+public class MovieCatalogPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MovieStore movieStore;
+    private final MovieListingClient movieListingClient;
+    private final String movieCatalogTopic;
+
+    //Latest version of each movie waiting to be sent
+    private final Map<Integer, Movie> pending = new ConcurrentHashMap<>();
+    //Favorited movies that have to be fetched from TMDB first
+    private final Set<Integer> missing = ConcurrentHashMap.newKeySet();
+    //Last version sent per movie
+    private final Cache<Integer, CatalogMovie> published;
+
+    private final Counter sent;
+    private final Counter unchanged;
+    private final Counter fetched;
+
+    public MovieCatalogPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                 MovieStore movieStore,
+                                 MovieListingClient movieListingClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${spring.kafka.topics.movie-catalog:movie-catalog}") String movieCatalogTopic,
+                                 @Value("${movie.catalog.topic.republish-after:6h}") Duration republishAfter,
+                                 @Value("${movie.catalog.topic.max-tracked:100000}") long maxTracked) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.movieStore = movieStore;
+        this.movieListingClient = movieListingClient;
+        this.movieCatalogTopic = movieCatalogTopic;
+        this.published = Caffeine.newBuilder()
+                .expireAfterWrite(republishAfter)
+                .maximumSize(maxTracked)
+                .build();
+
+        this.sent = records(meterRegistry, "sent");
+        this.unchanged = records(meterRegistry, "unchanged");
+        this.fetched = Counter.builder("movie.catalog.topic.fetched")
+                .description("Favorited movies fetched from TMDB because the store no longer had them")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onMoviesCached(MoviesCachedEvent event) {
+        for (Movie movie : event.movies()) {
+            offer(movie);
+        }
+    }
+
+    /**
+     * Queues favorited movies for the catalog, from the store or, when it no longer has them and they
+     * were not sent recently, fetched from TMDB by the next flush.
+     */
+    public void offerFavorited(Collection<Integer> movieIds) {
+        offerFavorited(movieIds, null);
+    }
+
+    /**
+     * Like {@link #offerFavorited(Collection)}, with the movie the client sent along. It is only queued
+     * when the store no longer has the movie, and the TMDB copy replaces it if the fetch succeeds.
+     */
+    public void offerFavorited(Integer movieId, Movie sent) {
+        offerFavorited(List.of(movieId), sent != null && sent.id() == movieId ? sent : null);
+    }
+
+    private void offerFavorited(Collection<Integer> movieIds, Movie sent) {
+        Map<Integer, Movie> stored = movieStore.findAll(movieIds);
+        stored.values().forEach(this::offer);
+        for (Integer movieId : movieIds) {
+            if (movieId > 0 && !stored.containsKey(movieId) && published.getIfPresent(movieId) == null) {
+                if (sent != null) {
+                    offer(sent);
+                }
+                missing.add(movieId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${movie.catalog.topic.flush-interval:5s}")
+    public void flush() {
+        fetchMissing();
+        List<Movie> movies = new ArrayList<>(pending.size());
+        for (Integer movieId : List.copyOf(pending.keySet())) {
+            Movie movie = pending.remove(movieId);
+            if (movie != null) {
+                movies.add(movie);
+            }
+        }
+        for (int i = 0; i < movies.size(); i++) {
+            CatalogMovie movie = toCatalogMovie(movies.get(i));
+            if (movie.equals(published.getIfPresent(movie.getId()))) {
+                unchanged.increment();
+                continue;
+            }
+            CompletableFuture<?> send = kafkaTemplate.send(movieCatalogTopic, Integer.toString(movie.getId()), movie)
+                    .whenComplete((result, ex) -> {
+                        if (ex == null) {
+                            published.put(movie.getId(), movie);
+                            sent.increment();
+                        } else {
+                            log.warn("Failed to publish catalog movie: movieId={}, error={}", movie.getId(), ex.getMessage());
+                        }
+                    });
+            //Failing before it was even sent means Kafka is unreachable, keep the rest for the next flush
+            if (send.isCompletedExceptionally()) {
+                movies.subList(i, movies.size()).forEach(rest -> pending.putIfAbsent(rest.id(), rest));
+                return;
+            }
+        }
+    }
+
+    //Waits for TMDB on the flush thread, user requests never do
+    private void fetchMissing() {
+        for (Integer movieId : List.copyOf(missing)) {
+            if (!missing.remove(movieId)) {
+                continue;
+            }
+            try {
+                offer(movieListingClient.fetchMovie(movieId, MovieApiPriority.BACKGROUND));
+                fetched.increment();
+            } catch (MovieApiThrottledException e) {
+                //TMDB is busy with users, try again on the next flush
+                missing.add(movieId);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to fetch catalog movie: movieId={}, error={}", movieId, e.getMessage());
+            }
+        }
+    }
+
+    private void offer(Movie movie) {
+        if (movie.id() > 0) {
+            pending.put(movie.id(), movie);
+        }
+    }
+
+    static CatalogMovie toCatalogMovie(Movie movie) {
+        return CatalogMovie.newBuilder()
+                .setId(movie.id())
+                .setTitle(movie.title())
+                .setOriginalTitle(movie.original_title())
+                .setOverview(movie.overview())
+                .setReleaseDate(releaseDate(movie.release_date()))
+                .setPosterPath(movie.poster_path())
+                .setBackdropPath(movie.backdrop_path())
+                .setPopularity(movie.popularity())
+                .setVoteAverage(movie.vote_average())
+                .setVoteCount(movie.vote_count())
+                .setGenreIds(movie.genre_ids() == null ? List.of() : movie.genre_ids())
+                .setOriginalLanguage(movie.original_language())
+                .setAdult(movie.adult())
+                .setVideo(movie.video())
+                .build();
+    }
+
+    //TMDB leaves the date empty or partial for some movies, those are sent without one
+    private static LocalDate releaseDate(String releaseDate) {
+        if (releaseDate == null || releaseDate.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(releaseDate);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("movie.catalog.topic.records")
+                .description("Movies flushed to the movie-catalog topic by whether they had to be sent")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -1,6 +1,10 @@
 package com.movies.movieserver.movie.event;
 
-import lombok.RequiredArgsConstructor;
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -8,64 +12,101 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes favorite changes, keyed by user so each user's events stay in order on one partition.
+ * The events are generated from the schemas shared with favorite-service and written by
+ * {@link FavoriteEventSerializer}.
+ * <p>
+ * Sends never block the caller; every send is timed from the call to the broker's acknowledgement as
+ * {@code movie.events.publish.latency}. How records are batched, compressed and acknowledged is left
+ * to the producer settings, see the {@code kafka-throughput} profile.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class MovieEventProducer {
 
     private final KafkaTemplate<String,Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String movieFavoriteAddedTopic;
+    private final String movieFavoriteRemovedTopic;
+
+    private final DistributionSummary batchSizes;
+
+    public MovieEventProducer(KafkaTemplate<String, Object> kafkaTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${spring.kafka.topics.movie-favorite-added}") String movieFavoriteAddedTopic,
+                              @Value("${spring.kafka.topics.movie-favorite-removed}") String movieFavoriteRemovedTopic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.movieFavoriteAddedTopic = movieFavoriteAddedTopic;
+        this.movieFavoriteRemovedTopic = movieFavoriteRemovedTopic;
+
+        this.batchSizes = DistributionSummary.builder("movie.events.batch.size")
+                .description("Favorite events published together by one batch request")
+                .register(meterRegistry);
+    }
 
-    @Value("${spring.kafka.topics.movie-favorite-added}")
-    private String movieFavoriteAddedTopic;
-
-    @Value("${spring.kafka.topics.movie-favorite-removed}")
-    private String movieFavoriteRemovedTopic;
-
-    public void publishMovieFavoriteAdded(MovieFavoriteAddedEvent event){
+    public CompletableFuture<SendResult<String, Object>> publishMovieFavoriteAdded(MovieFavoriteAddedEvent.Builder builder){
         //set metadata
-        event.setEventTimestamp(LocalDateTime.now());
-        event.setEventId(UUID.randomUUID().toString());
-
-        //partition key
-        String key = event.getUserId();
+        MovieFavoriteAddedEvent event = builder
+                .setEventTimestamp(LocalDateTime.now())
+                .setEventId(UUID.randomUUID().toString())
+                .build();
 
-        log.info("Publishing MovieFavoriteAddedEvent: userId={}, movieId={}, eventId={}",
+        log.debug("Publishing MovieFavoriteAddedEvent: userId={}, movieId={}, eventId={}",
                 event.getUserId(), event.getMovieId(), event.getEventId());
 
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(movieFavoriteAddedTopic, key, event);
-
-        future.whenComplete((result,ex) -> {
-            if(ex == null){
-                log.info("Successfully published event to Kafka: topic={}, partition={}, offset={}",
-                        movieFavoriteAddedTopic,
-                        result.getRecordMetadata().partition(),
-                        result.getRecordMetadata().offset());
-            }else{
-                log.error("Failed to publish event to Kafka: {}", ex.getMessage(), ex);
-            }
-        });
+        //partition key
+        return send(movieFavoriteAddedTopic, event.getUserId(), event, event.getEventId());
     }
 
-    public void publishMovieFavoriteRemoved(MovieFavoriteRemovedEvent event){
-        event.setEventTimestamp(LocalDateTime.now());
-        event.setEventId(UUID.randomUUID().toString());
+    /**
+     * Publishes all events without waiting in between, so the producer can pack them into as few
+     * requests as its batching allows. Completes once every event is acknowledged, or exceptionally
+     * when any of them failed. The producer's own batching shows up as {@code kafka.producer.batch.size.avg}.
+     */
+    public CompletableFuture<Void> publishMovieFavoritesAdded(List<MovieFavoriteAddedEvent.Builder> events){
+        batchSizes.record(events.size());
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            sends[i] = publishMovieFavoriteAdded(events.get(i));
+        }
+        return CompletableFuture.allOf(sends);
+    }
 
-        String key = event.getUserId();
+    public CompletableFuture<SendResult<String, Object>> publishMovieFavoriteRemoved(MovieFavoriteRemovedEvent.Builder builder){
+        MovieFavoriteRemovedEvent event = builder
+                .setEventTimestamp(LocalDateTime.now())
+                .setEventId(UUID.randomUUID().toString())
+                .build();
 
-        log.info("Publishing MovieFavoriteRemovedEvent: userId={}, movieId={}, eventId={}",
+        log.debug("Publishing MovieFavoriteRemovedEvent: userId={}, movieId={}, eventId={}",
                 event.getUserId(), event.getMovieId(), event.getEventId());
 
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(movieFavoriteRemovedTopic, key, event);
+        return send(movieFavoriteRemovedTopic, event.getUserId(), event, event.getEventId());
+    }
 
-        future.whenComplete((result, ex) -> {
+    private CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object event, String eventId){
+        long started = System.nanoTime();
+        //Returning the dependent future lets callers see the send recorded once it completes
+        return kafkaTemplate.send(topic, key, event).whenComplete((result, ex) -> {
+            Timer.builder("movie.events.publish.latency")
+                    .description("Time from sending a favorite event until the broker acknowledged it")
+                    .tag("topic", topic)
+                    .tag("outcome", ex == null ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
             if (ex == null) {
-                log.info("Successfully published event to Kafka: topic={}, offset={}",
-                        movieFavoriteRemovedTopic, result.getRecordMetadata().offset());
+                log.debug("Published event to Kafka: topic={}, partition={}, offset={}, eventId={}",
+                        topic, result.getRecordMetadata().partition(), result.getRecordMetadata().offset(), eventId);
             } else {
-                log.error("Failed to publish event to Kafka: {}", ex.getMessage(), ex);
+                log.error("Failed to publish event to Kafka: topic={}, eventId={}, error={}",
+                        topic, eventId, ex.getMessage(), ex);
             }
         });
     }
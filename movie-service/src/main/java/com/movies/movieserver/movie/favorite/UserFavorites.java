@@ -0,0 +1,104 @@
+package com.movies.movieserver.movie.favorite;
+
+import com.movies.movieserver.movie.Movie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The movie ids each user has favorited, read from the Redis set favorite-service keeps per user under
+ * {@code favorites:user:<id>}.
+ * <p>
+ * A page is resolved against the set with a single SMISMEMBER, so personalizing a page costs one
+ * round-trip whatever its size. The set is only trusted once favorite-service has marked it
+ * {@link #COMPLETE}, which is asked in the same SMISMEMBER. The set is never written here: favorite-service
+ * owns it and applies every change from the favorite events. If the set is not complete or Redis cannot
+ * be reached the shared page is served instead.
+ */
+@Component
+@Slf4j
+public class UserFavorites {
+
+    private static final String KEY_PREFIX = "favorites:user:";
+
+    //Added by favorite-service once a set holds all of the user's favorites, never a TMDB movie id
+    static final String COMPLETE = "complete";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    public UserFavorites(StringRedisTemplate stringRedisTemplate,
+                         ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+    }
+
+    public static String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    /**
+     * Returns the ids of the given movies that the user has favorited, or {@code null} when the user's
+     * set is not complete or cannot be read and the page should not be personalized.
+     */
+    public Set<Integer> findAmong(String userId, List<Movie> movies) {
+        if (movies.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            return favorited(userId, stringRedisTemplate.opsForSet().isMember(key(userId), memberIds(movies)));
+        } catch (DataAccessException e) {
+            log.warn("Could not read favorites, serving the page without them: userId={}, error={}",
+                    userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Like {@link #findAmong}, but completes empty when the page should not be personalized.
+     */
+    public Mono<Set<Integer>> findAmongReactive(String userId, List<Movie> movies) {
+        if (movies.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return reactiveStringRedisTemplate.opsForSet().isMember(key(userId), memberIds(movies))
+                .mapNotNull(membership -> favorited(userId, membership))
+                .onErrorResume(DataAccessException.class, e -> {
+                    log.warn("Could not read favorites, serving the page without them: userId={}, error={}",
+                            userId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    //The marker first, then the movies
+    private static Object[] memberIds(List<Movie> movies) {
+        Object[] ids = new Object[movies.size() + 1];
+        ids[0] = COMPLETE;
+        for (int i = 0; i < movies.size(); i++) {
+            ids[i + 1] = Integer.toString(movies.get(i).id());
+        }
+        return ids;
+    }
+
+    private static Set<Integer> favorited(String userId, Map<Object, Boolean> membership) {
+        if (membership == null || !Boolean.TRUE.equals(membership.get(COMPLETE))) {
+            log.debug("Favorite set is not complete, serving the page without favorites: userId={}", userId);
+            return null;
+        }
+        Set<Integer> favoriteIds = new HashSet<>();
+        membership.forEach((member, present) -> {
+            if (Boolean.TRUE.equals(present) && !COMPLETE.equals(member)) {
+                favoriteIds.add(Integer.parseInt((String) member));
+            }
+        });
+        return favoriteIds;
+    }
+}
@@ -0,0 +1,198 @@
+package com.movies.movieserver.movie.governor;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds concurrent TMDB calls with a limit that adapts to how TMDB is coping (AIMD): every call
+ * answered within the latency threshold grows the limit by {@code 1/limit}, so roughly by one per
+ * round of calls, while a slow answer or a 429 shrinks it multiplicatively.
+ * <p>
+ * Callers that find the limit reached wait in one FIFO queue per {@link MovieApiPriority}; freed
+ * permits go to user calls before background ones.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_SLOW = 0.9;
+    private static final double BACKOFF_THROTTLED = 0.5;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<MovieApiPriority, Deque<Waiter>> queues = new EnumMap<>(MovieApiPriority.class);
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyThresholdNanos;
+    private final int maxQueued;
+
+    private double limit;
+    private int inFlight;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, int maxQueued) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxQueued = maxQueued;
+        for (MovieApiPriority priority : MovieApiPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Takes a permit, waiting at most {@code maxWait}. Throws when the queue is full or the wait times out.
+     */
+    void acquire(MovieApiPriority priority, Duration maxWait) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit && !queuedAhead(priority)) {
+                inFlight++;
+                return;
+            }
+            if (queued() >= maxQueued) {
+                throw new Rejected("queue-full");
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues.get(priority).addLast(waiter);
+            long remaining = maxWait.toNanos();
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        throw new Rejected("timeout");
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                //A permit granted just before the interrupt is handed on
+                if (waiter.granted) {
+                    inFlight--;
+                    grantWaiting();
+                }
+                throw e;
+            } finally {
+                if (!waiter.granted) {
+                    queues.get(priority).remove(waiter);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit and feeds the outcome of the call into the limit.
+     */
+    void release(long latencyNanos, boolean throttled) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (throttled) {
+                limit = Math.max(minLimit, limit * BACKOFF_THROTTLED);
+            } else if (latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_SLOW);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            grantWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit that was not used for a call, leaving the limit as it is.
+     */
+    void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            grantWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueued(MovieApiPriority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void grantWaiting() {
+        for (MovieApiPriority priority : MovieApiPriority.values()) {
+            Deque<Waiter> queue = queues.get(priority);
+            while (inFlight < (int) limit && !queue.isEmpty()) {
+                Waiter waiter = queue.pollFirst();
+                waiter.granted = true;
+                inFlight++;
+                waiter.condition.signal();
+            }
+        }
+    }
+
+    //Callers never overtake waiters of the same or a higher priority
+    private boolean queuedAhead(MovieApiPriority priority) {
+        for (MovieApiPriority ahead : MovieApiPriority.values()) {
+            if (!queues.get(ahead).isEmpty()) {
+                return true;
+            }
+            if (ahead == priority) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private int queued() {
+        int queued = 0;
+        for (Deque<Waiter> queue : queues.values()) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+
+    private static final class Waiter {
+
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * No permit was granted; {@code reason} is used as a metric tag.
+     */
+    static final class Rejected extends RuntimeException {
+
+        Rejected(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.movies.movieserver.movie.governor;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Single gate for every outbound TMDB call. A call first needs a permit from the
+ * {@link AdaptiveConcurrencyLimiter}, which shrinks when TMDB slows down or answers 429, and then a
+ * token from the {@link RedisTokenBucket} that enforces the TMDB quota across all replicas.
+ * <p>
+ * {@link MovieApiPriority#USER} calls are served first and wait at most
+ * {@code movie.api.governor.max-wait.user}; background calls may wait longer. Calls that cannot get
+ * a permit in time fail with {@link MovieApiThrottledException}. If Redis cannot be reached the rate
+ * limit is skipped rather than stopping all TMDB traffic.
+ */
+@Component
+@Slf4j
+public class MovieApiGovernor {
+
+    private static final String BUCKET_KEY = "movieApi:tokens";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final RedisTokenBucket tokenBucket;
+    private final Map<MovieApiPriority, Duration> maxWaits = new EnumMap<>(MovieApiPriority.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<MovieApiPriority, Timer> waitTimers = new EnumMap<>(MovieApiPriority.class);
+    private final Counter throttledResponses;
+
+    public MovieApiGovernor(StringRedisTemplate stringRedisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${movie.api.governor.rate:40}") double rate,
+                            @Value("${movie.api.governor.burst:40}") double burst,
+                            @Value("${movie.api.governor.background-reserve:0.25}") double backgroundReserve,
+                            @Value("${movie.api.governor.initial-limit:8}") int initialLimit,
+                            @Value("${movie.api.governor.min-limit:1}") int minLimit,
+                            @Value("${movie.api.governor.max-limit:32}") int maxLimit,
+                            @Value("${movie.api.governor.latency-threshold:1s}") Duration latencyThreshold,
+                            @Value("${movie.api.governor.max-queue:200}") int maxQueue,
+                            @Value("${movie.api.governor.max-wait.user:2s}") Duration maxUserWait,
+                            @Value("${movie.api.governor.max-wait.background:30s}") Duration maxBackgroundWait) {
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold, maxQueue);
+        this.tokenBucket = new RedisTokenBucket(stringRedisTemplate, BUCKET_KEY, rate, burst, backgroundReserve);
+        this.maxWaits.put(MovieApiPriority.USER, maxUserWait);
+        this.maxWaits.put(MovieApiPriority.BACKGROUND, maxBackgroundWait);
+
+        this.meterRegistry = meterRegistry;
+        for (MovieApiPriority priority : MovieApiPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            waitTimers.put(priority, Timer.builder("movie.api.governor.wait")
+                    .description("Time spent waiting for a movie API permit")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            Gauge.builder("movie.api.governor.queue.depth", limiter, l -> l.getQueued(priority))
+                    .description("Calls waiting for a movie API permit")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("movie.api.governor.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit of concurrent movie API calls")
+                .register(meterRegistry);
+        Gauge.builder("movie.api.governor.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Movie API calls in flight")
+                .register(meterRegistry);
+        this.throttledResponses = Counter.builder("movie.api.governor.throttled")
+                .description("Movie API calls answered with 429 Too Many Requests")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a blocking TMDB call once a permit is granted.
+     */
+    public <T> T call(MovieApiPriority priority, Supplier<T> call) {
+        Permit permit = acquire(priority);
+        try {
+            T result = call.get();
+            permit.release(false);
+            return result;
+        } catch (RuntimeException e) {
+            permit.release(isThrottled(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Subscribes to a non-blocking TMDB call once a permit is granted. Waiting for the permit happens
+     * off the event loop.
+     */
+    public <T> Mono<T> call(MovieApiPriority priority, Mono<T> call) {
+        return Mono.using(() -> acquire(priority),
+                        permit -> call
+                                .doOnSuccess(result -> permit.release(false))
+                                .doOnError(e -> permit.release(isThrottled(e))),
+                        Permit::cancel)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Permit acquire(MovieApiPriority priority) {
+        long start = System.nanoTime();
+        Duration maxWait = maxWaits.get(priority);
+        try {
+            limiter.acquire(priority, maxWait);
+        } catch (AdaptiveConcurrencyLimiter.Rejected e) {
+            throw rejected(priority, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a movie API permit", e);
+        }
+
+        try {
+            takeToken(priority, start + maxWait.toNanos());
+        } catch (RuntimeException e) {
+            limiter.cancel();
+            throw e;
+        }
+        waitTimers.get(priority).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit();
+    }
+
+    private void takeToken(MovieApiPriority priority, long deadline) {
+        while (true) {
+            long waitMillis;
+            try {
+                waitMillis = tokenBucket.tryTake(priority);
+            } catch (RuntimeException e) {
+                log.warn("Movie API rate limit unavailable, letting the call through: {}", e.getMessage());
+                return;
+            }
+            if (waitMillis == 0) {
+                return;
+            }
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis) - deadline > 0) {
+                throw rejected(priority, "rate-limited");
+            }
+            sleep(waitMillis);
+        }
+    }
+
+    private MovieApiThrottledException rejected(MovieApiPriority priority, String reason) {
+        Counter.builder("movie.api.governor.rejected")
+                .description("Movie API calls that did not get a permit")
+                .tag("priority", priority.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new MovieApiThrottledException("No movie API permit for " + priority + " call: " + reason);
+    }
+
+    private static boolean isThrottled(Throwable e) {
+        return (e instanceof FeignException feignException && feignException.status() == 429)
+                || (e instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().value() == 429);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a movie API token", e);
+        }
+    }
+
+    //Feeds the call's latency and outcome back into the limiter exactly once
+    private final class Permit {
+
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release(boolean throttled) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (throttled) {
+                throttledResponses.increment();
+            }
+            limiter.release(System.nanoTime() - start, throttled);
+        }
+
+        //Returns the permit unused, e.g. when the subscriber went away
+        void cancel() {
+            if (released.compareAndSet(false, true)) {
+                limiter.cancel();
+            }
+        }
+    }
+}
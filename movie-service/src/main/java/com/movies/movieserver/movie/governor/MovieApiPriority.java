@@ -0,0 +1,14 @@
+package com.movies.movieserver.movie.governor;
+
+/**
+ * Who is waiting for a TMDB call. User-facing calls are always granted before background ones and
+ * may use the part of the rate limit that background work has to leave free.
+ */
+public enum MovieApiPriority {
+
+    //A user request missed the cache and is waiting for the page
+    USER,
+
+    //Refresh-ahead and catalog ingestion
+    BACKGROUND
+}
@@ -0,0 +1,15 @@
+package com.movies.movieserver.movie.governor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when no TMDB permit could be obtained in time, or the permit queue is full.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class MovieApiThrottledException extends RuntimeException {
+
+    public MovieApiThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.movies.movieserver.movie.governor;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Token bucket shared by every movie-service replica, refilled at a fixed rate from Redis' own clock.
+ * <p>
+ * Background calls may only take a token while more than the reserved share of the bucket is left,
+ * so a burst of refreshes cannot use up the tokens user-facing misses need.
+ */
+class RedisTokenBucket {
+
+    //KEYS[1] = bucket, ARGV[1] = tokens per second, ARGV[2] = capacity, ARGV[3] = tokens that must stay
+    //Returns 0 when a token was taken, otherwise the millis until one is available
+    private static final RedisScript<Long> TAKE = new DefaultRedisScript<>("""
+            local rate = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local reserve = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'at')
+            local tokens = tonumber(bucket[1]) or capacity
+            local at = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + (now - at) * rate / 1000)
+            local wait = 0
+            if tokens >= reserve + 1 then
+                tokens = tokens - 1
+            else
+                wait = math.ceil((reserve + 1 - tokens) * 1000 / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'at', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+            return wait
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String key;
+    private final double rate;
+    private final double capacity;
+    private final double backgroundReserve;
+
+    RedisTokenBucket(StringRedisTemplate stringRedisTemplate, String key, double rate, double capacity,
+                     double backgroundReserve) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.key = key;
+        this.rate = rate;
+        this.capacity = capacity;
+        this.backgroundReserve = backgroundReserve;
+    }
+
+    /**
+     * Takes a token, or returns how many millis to wait before trying again.
+     */
+    long tryTake(MovieApiPriority priority) {
+        double reserve = priority == MovieApiPriority.BACKGROUND ? capacity * backgroundReserve : 0;
+        Long wait = stringRedisTemplate.execute(TAKE, List.of(key),
+                Double.toString(rate), Double.toString(capacity), Double.toString(reserve));
+        return wait == null ? 0 : wait;
+    }
+}
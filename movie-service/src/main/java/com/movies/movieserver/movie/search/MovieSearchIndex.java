@@ -0,0 +1,299 @@
+package com.movies.movieserver.movie.search;
+
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.cache.MoviesCachedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over every movie this replica has cached, so movies can be searched and
+ * filtered without asking TMDB.
+ * <p>
+ * Each movie gets a document number the first time it is indexed. Title words, genres, languages and
+ * the adult flag map to bit sets of document numbers, so a search is a handful of bit set
+ * intersections followed by a date range check on the matches. The index follows the caches through
+ * {@link MoviesCachedEvent}: a movie seen again with different data is re-indexed in place.
+ * <p>
+ * At most {@code movie.search.max-movies} movies are indexed; movies beyond that are skipped until
+ * the replica restarts.
+ */
+@Component
+public class MovieSearchIndex {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final int maxMovies;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Integer> docsByMovieId = new HashMap<>();
+    private final List<Movie> docs = new ArrayList<>();
+    private int[] releaseDays = new int[1024];
+    private final NavigableMap<String, BitSet> words = new TreeMap<>();
+    private final Map<Integer, BitSet> genres = new HashMap<>();
+    private final Map<String, BitSet> languages = new HashMap<>();
+    private final BitSet adult = new BitSet();
+
+    private final Counter skipped;
+    private final Timer searches;
+
+    public MovieSearchIndex(MeterRegistry meterRegistry,
+                            @Value("${movie.search.max-movies:100000}") int maxMovies) {
+        this.maxMovies = maxMovies;
+
+        Gauge.builder("movie.search.index.size", this, MovieSearchIndex::size)
+                .description("Movies in the search index")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("movie.search.index.skipped")
+                .description("Movies left out of the search index because it is full")
+                .register(meterRegistry);
+        this.searches = Timer.builder("movie.search.latency")
+                .description("Time to answer a search from the index")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onMoviesCached(MoviesCachedEvent event) {
+        index(event.movies());
+    }
+
+    public void index(Collection<Movie> movies) {
+        lock.writeLock().lock();
+        try {
+            for (Movie movie : movies) {
+                upsert(movie);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public MovieSearchResult search(MovieSearchQuery query) {
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(query);
+            int[] hits = matches.stream().toArray();
+            MovieSearchResult.Facets facets = facets(hits);
+
+            int from = (int) Math.min((long) (query.page() - 1) * query.pageSize(), hits.length);
+            int to = Math.min(from + query.pageSize(), hits.length);
+            List<Movie> movies = Arrays.stream(hits)
+                    .boxed()
+                    .sorted(order(query.sort()))
+                    .skip(from)
+                    .limit(to - from)
+                    .map(docs::get)
+                    .toList();
+            return new MovieSearchResult(movies, hits.length, query.page(), query.pageSize(), facets);
+        } finally {
+            lock.readLock().unlock();
+            searches.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private BitSet match(MovieSearchQuery query) {
+        BitSet matches = new BitSet(docs.size());
+        matches.set(0, docs.size());
+
+        List<String> tokens = tokenize(query.text());
+        for (int i = 0; i < tokens.size() && !matches.isEmpty(); i++) {
+            //The last word may still be being typed
+            matches.and(i == tokens.size() - 1 ? prefixed(tokens.get(i)) : words.getOrDefault(tokens.get(i), new BitSet()));
+        }
+        if (query.genreIds() != null && !query.genreIds().isEmpty()) {
+            BitSet anyGenre = new BitSet();
+            for (Integer genreId : query.genreIds()) {
+                BitSet genre = genres.get(genreId);
+                if (genre != null) {
+                    anyGenre.or(genre);
+                }
+            }
+            matches.and(anyGenre);
+        }
+        if (query.language() != null && !query.language().isBlank()) {
+            matches.and(languages.getOrDefault(query.language().toLowerCase(Locale.ROOT), new BitSet()));
+        }
+        if (!query.includeAdult()) {
+            matches.andNot(adult);
+        }
+        if (query.releasedFrom() != null || query.releasedTo() != null) {
+            long from = query.releasedFrom() == null ? Long.MIN_VALUE : query.releasedFrom().toEpochDay();
+            long to = query.releasedTo() == null ? Long.MAX_VALUE : query.releasedTo().toEpochDay();
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                int day = releaseDays[doc];
+                if (day == NO_DATE || day < from || day > to) {
+                    matches.clear(doc);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private BitSet prefixed(String prefix) {
+        BitSet union = new BitSet();
+        for (BitSet docsWithWord : words.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            union.or(docsWithWord);
+        }
+        return union;
+    }
+
+    private MovieSearchResult.Facets facets(int[] hits) {
+        Map<Integer, Integer> genreCounts = new TreeMap<>();
+        Map<String, Integer> languageCounts = new TreeMap<>();
+        Map<Integer, Integer> yearCounts = new TreeMap<>();
+        for (int doc : hits) {
+            Movie movie = docs.get(doc);
+            if (movie.genre_ids() != null) {
+                for (Integer genreId : movie.genre_ids()) {
+                    genreCounts.merge(genreId, 1, Integer::sum);
+                }
+            }
+            if (movie.original_language() != null) {
+                languageCounts.merge(movie.original_language().toLowerCase(Locale.ROOT), 1, Integer::sum);
+            }
+            if (releaseDays[doc] != NO_DATE) {
+                yearCounts.merge(LocalDate.ofEpochDay(releaseDays[doc]).getYear(), 1, Integer::sum);
+            }
+        }
+        return new MovieSearchResult.Facets(genreCounts, languageCounts, yearCounts);
+    }
+
+    //Highest first, ties broken by movie id so pages stay stable
+    private Comparator<Integer> order(MovieSearchSort sort) {
+        Comparator<Integer> order = switch (sort == null ? MovieSearchSort.POPULARITY : sort) {
+            case POPULARITY -> Comparator.comparingDouble(doc -> docs.get(doc).popularity());
+            case VOTE_AVERAGE -> Comparator.comparingDouble(doc -> docs.get(doc).vote_average());
+            case RELEASE_DATE -> Comparator.comparingInt(doc -> releaseDays[doc]);
+        };
+        return order.reversed().thenComparingInt(doc -> docs.get(doc).id());
+    }
+
+    private void upsert(Movie movie) {
+        Integer doc = docsByMovieId.get(movie.id());
+        if (doc != null) {
+            Movie indexed = docs.get(doc);
+            if (indexed.equals(movie)) {
+                return;
+            }
+            unindex(doc, indexed);
+            docs.set(doc, movie);
+        } else {
+            if (docs.size() >= maxMovies) {
+                skipped.increment();
+                return;
+            }
+            doc = docs.size();
+            docs.add(movie);
+            docsByMovieId.put(movie.id(), doc);
+            if (doc == releaseDays.length) {
+                releaseDays = Arrays.copyOf(releaseDays, releaseDays.length * 2);
+            }
+        }
+
+        for (String word : words(movie)) {
+            words.computeIfAbsent(word, w -> new BitSet()).set(doc);
+        }
+        if (movie.genre_ids() != null) {
+            for (Integer genreId : movie.genre_ids()) {
+                genres.computeIfAbsent(genreId, g -> new BitSet()).set(doc);
+            }
+        }
+        if (movie.original_language() != null) {
+            languages.computeIfAbsent(movie.original_language().toLowerCase(Locale.ROOT), l -> new BitSet()).set(doc);
+        }
+        adult.set(doc, movie.adult());
+        releaseDays[doc] = releaseDay(movie.release_date());
+    }
+
+    private void unindex(int doc, Movie indexed) {
+        for (String word : words(indexed)) {
+            clear(words, word, doc);
+        }
+        if (indexed.genre_ids() != null) {
+            for (Integer genreId : indexed.genre_ids()) {
+                clear(genres, genreId, doc);
+            }
+        }
+        if (indexed.original_language() != null) {
+            clear(languages, indexed.original_language().toLowerCase(Locale.ROOT), doc);
+        }
+    }
+
+    private static <K> void clear(Map<K, BitSet> postings, K key, int doc) {
+        BitSet docsWithKey = postings.get(key);
+        if (docsWithKey != null) {
+            docsWithKey.clear(doc);
+            if (docsWithKey.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> words(Movie movie) {
+        Set<String> words = new LinkedHashSet<>(tokenize(movie.title()));
+        words.addAll(tokenize(movie.original_title()));
+        return words;
+    }
+
+    private static int releaseDay(String releaseDate) {
+        if (releaseDate == null || releaseDate.isBlank()) {
+            return NO_DATE;
+        }
+        try {
+            return (int) LocalDate.parse(releaseDate).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.movies.movieserver.movie.search;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * A search over the {@link MovieSearchIndex}. Every criterion is optional; the text matches all of
+ * its words in the title or original title, the last word also as a prefix.
+ *
+ * @param genreIds movies must have at least one of these genres
+ * @param releasedFrom inclusive, movies without a release date never match a date range
+ * @param releasedTo inclusive
+ */
+@Builder
+public record MovieSearchQuery(String text,
+                               Set<Integer> genreIds,
+                               String language,
+                               LocalDate releasedFrom,
+                               LocalDate releasedTo,
+                               boolean includeAdult,
+                               MovieSearchSort sort,
+                               int page,
+                               int pageSize) {
+}
@@ -0,0 +1,25 @@
+package com.movies.movieserver.movie.search;
+
+import com.movies.movieserver.movie.Movie;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of search results. The facets count all matching movies, not only the ones on this page.
+ *
+ * @param genres matching movies per genre id
+ * @param languages matching movies per original language
+ * @param years matching movies per release year
+ */
+public record MovieSearchResult(List<Movie> movies,
+                                int total,
+                                int page,
+                                int pageSize,
+                                Facets facets) {
+
+    public record Facets(Map<Integer, Integer> genres,
+                         Map<String, Integer> languages,
+                         Map<Integer, Integer> years) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.movies.movieserver.movie.search;
+
+/**
+ * Orders search results, highest first.
+ */
+public enum MovieSearchSort {
+    POPULARITY,
+    VOTE_AVERAGE,
+    RELEASE_DATE
+}
@@ -3,11 +3,13 @@ package com.movies.movieserver;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.movies.movieserver.movie.Movie;
 import com.movies.movieserver.movie.MovieService;
+import com.movies.movieserver.movie.cache.MoviePageCache;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 //import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.GenericContainer;
@@ -15,7 +17,14 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
@@ -32,6 +41,12 @@ class MovieClientIntegrationTest {
     @Autowired
     private RedisTemplate<String, Movie> redisTemplate;
 
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private MoviePageCache moviePageCache;
+
     private static WireMockServer wireMockServer;
 
     @Container
@@ -70,6 +85,7 @@ class MovieClientIntegrationTest {
     void setUp() {
         // Clear Redis cache before each test
         redisTemplate.getConnectionFactory().getConnection().flushAll();
+        moviePageCache.clearLocal();
 
         // Reset WireMock
         wireMockServer.resetAll();
@@ -133,13 +149,14 @@ class MovieClientIntegrationTest {
                 .withQueryParam("page", equalTo("1"))
                 .withHeader("Authorization", matching("Bearer test-api-key-12345")));
 
-        // Verify data is cached in Redis
-        List<Movie> cachedMovies = redisTemplate.opsForList()
+        // Verify data is cached in Redis: the page holds ids, each movie is stored once
+        List<String> cachedIds = stringRedisTemplate.opsForList()
                 .range("upcomingMovies:page_1", 0, -1);
 
-        assertNotNull(cachedMovies, "Cached movies should not be null");
-        assertEquals(2, cachedMovies.size(), "Should have 2 cached movies");
-        assertEquals("Inception", cachedMovies.get(0).title());
+        assertEquals(List.of("101", "102"), cachedIds, "Should have 2 cached movie ids");
+        Movie cachedMovie = redisTemplate.opsForValue().get("movie:101");
+        assertNotNull(cachedMovie, "Cached movie should not be null");
+        assertEquals("Inception", cachedMovie.title());
     }
 
     @Test
@@ -236,9 +253,9 @@ class MovieClientIntegrationTest {
                 .withQueryParam("page", equalTo("2")));
 
         // Verify both pages are cached separately
-        List<Movie> cachedPage1 = redisTemplate.opsForList()
+        List<String> cachedPage1 = stringRedisTemplate.opsForList()
                 .range("upcomingMovies:page_1", 0, -1);
-        List<Movie> cachedPage2 = redisTemplate.opsForList()
+        List<String> cachedPage2 = stringRedisTemplate.opsForList()
                 .range("upcomingMovies:page_2", 0, -1);
 
         assertNotNull(cachedPage1);
@@ -274,6 +291,68 @@ class MovieClientIntegrationTest {
                 .withQueryParam("page", equalTo("999")));
     }
 
+    @Test
+    @Order(5)
+    @DisplayName("Should not duplicate cached movies under concurrent cache misses")
+    void shouldNotDuplicateMoviesUnderConcurrentMisses() throws Exception {
+        // Given: A slow API so that all callers miss the cache at the same time
+        wireMockServer.stubFor(get(urlPathEqualTo("/discover/movie"))
+                .withQueryParam("page", equalTo("1"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(300)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {
+                                    "page": 1,
+                                    "results": [
+                                        {"id": 401, "title": "Concurrent 1", "release_date": "2025-11-01"},
+                                        {"id": 402, "title": "Concurrent 2", "release_date": "2025-11-02"}
+                                    ]
+                                }
+                                """)));
+
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            // When: Many requests miss the same page concurrently
+            List<Future<List<Movie>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return movieService.fetchUpcomingMovies(1);
+                }));
+            }
+            start.countDown();
+            for (Future<List<Movie>> result : results) {
+                assertEquals(2, result.get(10, TimeUnit.SECONDS).size());
+            }
+
+            // And: The page is also overwritten concurrently
+            List<Movie> page = results.get(0).get();
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                writes.add(executor.submit(() -> moviePageCache.put("upcomingMovies:page_1", page, Duration.ofHours(3))));
+            }
+            for (Future<?> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then: The API was called once and the page holds each movie exactly once
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/discover/movie")));
+
+        List<String> cachedIds = stringRedisTemplate.opsForList().range("upcomingMovies:page_1", 0, -1);
+        assertEquals(List.of("401", "402"), cachedIds, "Page must not contain duplicated movies");
+
+        Long ttl = redisTemplate.getExpire("upcomingMovies:page_1", TimeUnit.SECONDS);
+        assertNotNull(ttl);
+        assertTrue(ttl > 0, "Page must be written together with its expiry");
+    }
+
 //    @Test
 //    @Order(5)
 //    @DisplayName("Should verify request headers are sent correctly")
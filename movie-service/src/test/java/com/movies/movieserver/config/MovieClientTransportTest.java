@@ -0,0 +1,118 @@
+package com.movies.movieserver.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.movies.movieserver.movie.MovieApiResponse;
+import com.movies.movieserver.movie.MovieClient;
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.time.Duration;
+import java.util.StringJoiner;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieClientTransportTest {
+
+    private static final int CALLS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WireMockServer wireMockServer;
+    private String apiUrl;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        apiUrl = "http://localhost:" + wireMockServer.port();
+        wireMockServer.stubFor(get(urlPathEqualTo("/movie/now_playing")).willReturn(okJson(page())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Should reuse pooled connections and receive compressed pages")
+    void shouldReuseConnectionsAndSaveBytes() {
+        OkHttpClient okHttpClient = new MovieClientConfig().movieApiHttpClient(meterRegistry, apiUrl,
+                20, Duration.ofMinutes(5), Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(15));
+        MovieClient pooled = movieClient(new feign.okhttp.OkHttpClient(okHttpClient));
+        MovieClient plain = movieClient(new Client.Default(null, null));
+
+        // When: Fetching the same page repeatedly over both transports
+        long plainNanos = time(plain);
+        long pooledNanos = time(pooled);
+
+        double calls = meterRegistry.get("movie.api.http.calls").counter().count();
+        double opened = meterRegistry.get("movie.api.http.connections.opened").counter().count();
+        double received = meterRegistry.get("movie.api.http.response.bytes").tag("stage", "received").counter().count();
+        double decoded = meterRegistry.get("movie.api.http.response.bytes").tag("stage", "decoded").counter().count();
+        System.out.printf("%d calls: HttpURLConnection %d us/call, %d bytes/call; "
+                        + "pooled %d us/call, %.0f bytes/call received, %.0f decoded, %.0f connections opened%n",
+                CALLS, plainNanos / CALLS / 1_000, page().length(),
+                pooledNanos / CALLS / 1_000, received / CALLS, decoded / CALLS, opened);
+
+        // Then: One connection served every call and the pages arrived compressed
+        assertEquals(CALLS, calls);
+        assertEquals(1, opened, "Every call should reuse the pooled connection");
+        assertTrue(received < decoded / 2, "Pages should arrive gzip compressed");
+        assertEquals(page().length() * (double) CALLS, decoded);
+        wireMockServer.verify(CALLS, getRequestedFor(urlPathEqualTo("/movie/now_playing"))
+                .withHeader("Accept-Encoding", containing("gzip")));
+    }
+
+    private MovieClient movieClient(Client client) {
+        return Feign.builder()
+                .client(client)
+                .contract(new SpringMvcContract())
+                .options(new Request.Options(Duration.ofSeconds(2), Duration.ofSeconds(5), true))
+                .decoder((response, type) -> objectMapper.readValue(response.body().asInputStream(),
+                        objectMapper.constructType(type)))
+                .target(MovieClient.class, apiUrl);
+    }
+
+    //Sends CALLS page fetches, timing the second half
+    private long time(MovieClient movieClient) {
+        for (int i = 0; i < CALLS / 2; i++) {
+            fetch(movieClient);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS / 2; i++) {
+            fetch(movieClient);
+        }
+        return (System.nanoTime() - start) * 2;
+    }
+
+    private static void fetch(MovieClient movieClient) {
+        MovieApiResponse response = movieClient.getNowPlayingMovies("Bearer test", "en-US", 1, "TR");
+        assertEquals(20, response.results().size());
+    }
+
+    private static String page() {
+        StringJoiner results = new StringJoiner(",");
+        for (int id = 1; id <= 20; id++) {
+            results.add("""
+                    {"id": %d, "title": "Movie %d", "original_title": "Movie %d",
+                     "overview": "A long overview of movie %d that is typical of what TMDB returns for a listing page.",
+                     "release_date": "2025-11-01", "poster_path": "/poster%d.jpg", "backdrop_path": "/backdrop%d.jpg",
+                     "popularity": 123.456, "vote_average": 7.8, "vote_count": 1234, "genre_ids": [28, 12, 878],
+                     "original_language": "en", "adult": false, "video": false}"""
+                    .formatted(id, id, id, id, id, id));
+        }
+        return "{\"page\": 1, \"results\": [" + results + "], \"total_pages\": 10, \"total_results\": 200}";
+    }
+}
@@ -0,0 +1,74 @@
+package com.movies.movieserver.movie;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of the thread-per-request setup against {@value #CLIENTS} concurrent clients, each
+ * requesting an uncached page from a TMDB stand-in that takes {@link #TMDB_DELAY} to answer.
+ * <p>
+ * Prints throughput together with the peak number of platform threads and the heap in use, so
+ * platform and virtual request threads can be compared; subclasses decide what they must guarantee.
+ */
+abstract class AbstractConcurrentClientsLoadTest extends AbstractMovieLoadTest {
+
+    static final int CLIENTS = 5_000;
+    static final Duration TMDB_DELAY = Duration.ofMillis(200);
+
+    @BeforeEach
+    void stubTmdb() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/movie/now_playing"))
+                .willReturn(okJson("""
+                        {
+                            "page": 1,
+                            "results": [{"id": 1, "title": "Movie", "release_date": "2025-11-01"}],
+                            "total_pages": 500,
+                            "total_results": 10000
+                        }
+                        """).withFixedDelay((int) TMDB_DELAY.toMillis())));
+    }
+
+    /**
+     * Checks how long the {@value #CLIENTS} clients took to be served.
+     */
+    abstract void assertElapsed(Duration elapsed);
+
+    @Test
+    void shouldServeConcurrentClients() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        threads.resetPeakThreadCount();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CLIENTS);
+        for (int client = 0; client < CLIENTS; client++) {
+            responses.add(send(client + 1));
+        }
+        long heapPeak = heapBefore;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            heapPeak = Math.max(heapPeak, memory.getHeapMemoryUsage().getUsed());
+            assertEquals(200, response.join().statusCode());
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        System.out.printf("%s: %d clients in %d ms, %.0f req/s, peak platform threads %d, heap +%d MB%n",
+                getClass().getSimpleName(), CLIENTS, elapsed.toMillis(),
+                CLIENTS / (elapsed.toNanos() / 1e9), threads.getPeakThreadCount(),
+                (heapPeak - heapBefore) / (1024 * 1024));
+        assertElapsed(elapsed);
+    }
+}
@@ -0,0 +1,111 @@
+package com.movies.movieserver.movie;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.movies.movieserver.movie.cache.MoviePageCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Shared setup of the load tests: a Redis container, a TMDB stand-in and a governor that lets every
+ * TMDB call through at once, so only the request path is measured.
+ * <p>
+ * Each test starts from empty caches and an unstubbed TMDB stand-in; subclasses stub the responses
+ * their scenario needs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "movie.cache.refresh.interval=1h"
+})
+@Testcontainers(disabledWithoutDocker = true)
+abstract class AbstractMovieLoadTest {
+
+    //Above the number of requests any scenario sends
+    private static final int MAX_TMDB_CALLS = 10_000;
+
+    @Container
+    static GenericContainer<?> redisContainer = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379)
+            .withReuse(true);
+
+    static WireMockServer wireMockServer;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private MoviePageCache moviePageCache;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redisContainer::getHost);
+        registry.add("spring.data.redis.port", redisContainer::getFirstMappedPort);
+        registry.add("movie.api.url", () -> "http://localhost:" + wireMockServer.port());
+        registry.add("movie.api.governor.rate", () -> 100_000);
+        registry.add("movie.api.governor.burst", () -> 100_000);
+        registry.add("movie.api.governor.initial-limit", () -> MAX_TMDB_CALLS);
+        registry.add("movie.api.governor.max-limit", () -> MAX_TMDB_CALLS);
+        registry.add("movie.api.governor.latency-threshold", () -> "1m");
+        registry.add("movie.api.governor.max-queue", () -> MAX_TMDB_CALLS);
+        registry.add("movie.api.governor.max-wait.user", () -> "5m");
+    }
+
+    @BeforeAll
+    static void startWireMock() {
+        //Delayed responses are scheduled instead of holding a Jetty thread each
+        wireMockServer = new WireMockServer(options().dynamicPort()
+                .containerThreads(200)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(16));
+        wireMockServer.start();
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        if (wireMockServer != null && wireMockServer.isRunning()) {
+            wireMockServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void resetState() {
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        moviePageCache.clearLocal();
+        wireMockServer.resetAll();
+    }
+
+    CompletableFuture<HttpResponse<Void>> send(int pageNumber) {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/nowPlaying?pageNumber=" + pageNumber))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+}
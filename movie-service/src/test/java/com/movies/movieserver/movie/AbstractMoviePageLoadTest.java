@@ -0,0 +1,100 @@
+package com.movies.movieserver.movie;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test for the movie page endpoints against a TMDB stand-in that is artificially slow.
+ * <p>
+ * A burst of requests for uncached pages, each taking {@link #TMDB_DELAY} to answer, is sent
+ * together with many requests for an already cached page to a Tomcat limited to a few threads.
+ * Throughput and the p99 of the cache hits are printed so the blocking and the reactive request
+ * paths can be compared; subclasses decide what they must guarantee.
+ */
+@TestPropertySource(properties = {
+        "server.tomcat.threads.max=8",
+        "server.tomcat.threads.min-spare=8"
+})
+abstract class AbstractMoviePageLoadTest extends AbstractMovieLoadTest {
+
+    static final Duration TMDB_DELAY = Duration.ofSeconds(1);
+
+    private static final int SLOW_REQUESTS = 32;
+    private static final int HIT_REQUESTS = 400;
+
+    @BeforeEach
+    void stubTmdb() {
+        //Every page is slow except page 1, which the cache hits are served from
+        wireMockServer.stubFor(get(urlPathEqualTo("/movie/now_playing"))
+                .willReturn(okJson(page(900)).withFixedDelay((int) TMDB_DELAY.toMillis())));
+        wireMockServer.stubFor(get(urlPathEqualTo("/movie/now_playing"))
+                .withQueryParam("page", equalTo("1"))
+                .willReturn(okJson(page(100))));
+    }
+
+    /**
+     * Checks the p99 latency of the cache hits measured while the TMDB misses were in flight.
+     */
+    abstract void assertCacheHitLatency(Duration p99);
+
+    @Test
+    void shouldKeepServingCacheHitsWhileTmdbIsSlow() {
+        assertEquals(200, send(1).join().statusCode(), "Warming page 1 failed");
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<Void>>> slow = new ArrayList<>();
+        for (int i = 0; i < SLOW_REQUESTS; i++) {
+            slow.add(send(i + 2));
+        }
+        List<Long> hitLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<HttpResponse<Void>>> hits = new ArrayList<>();
+        for (int i = 0; i < HIT_REQUESTS; i++) {
+            long sent = System.nanoTime();
+            hits.add(send(1).whenComplete((response, error) -> hitLatencies.add(System.nanoTime() - sent)));
+        }
+
+        for (CompletableFuture<HttpResponse<Void>> response : hits) {
+            assertEquals(200, response.join().statusCode());
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : slow) {
+            assertEquals(200, response.join().statusCode());
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        List<Long> sorted = new ArrayList<>(hitLatencies);
+        Collections.sort(sorted);
+        Duration p99 = Duration.ofNanos(sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1));
+        double throughput = (SLOW_REQUESTS + HIT_REQUESTS) / (elapsed.toNanos() / 1e9);
+        System.out.printf("%s: %d requests in %d ms, %.0f req/s, cache hit p99 %d ms%n",
+                getClass().getSimpleName(), SLOW_REQUESTS + HIT_REQUESTS, elapsed.toMillis(),
+                throughput, p99.toMillis());
+
+        wireMockServer.verify(SLOW_REQUESTS + 1, getRequestedFor(urlPathEqualTo("/movie/now_playing")));
+        assertCacheHitLatency(p99);
+    }
+
+    private static String page(int firstId) {
+        return """
+                {
+                    "page": 1,
+                    "results": [
+                        {"id": %d, "title": "Movie %d", "release_date": "2025-11-01"},
+                        {"id": %d, "title": "Movie %d", "release_date": "2025-11-02"}
+                    ],
+                    "total_pages": 500,
+                    "total_results": 10000
+                }
+                """.formatted(firstId, firstId, firstId + 1, firstId + 1);
+    }
+}
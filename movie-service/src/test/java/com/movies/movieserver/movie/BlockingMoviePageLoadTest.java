@@ -0,0 +1,14 @@
+package com.movies.movieserver.movie;
+
+import java.time.Duration;
+
+/**
+ * Baseline: with every Tomcat thread waiting for TMDB, cache hits queue behind the slow misses.
+ * Only reports the numbers.
+ */
+class BlockingMoviePageLoadTest extends AbstractMoviePageLoadTest {
+
+    @Override
+    void assertCacheHitLatency(Duration p99) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.movies.movieserver.movie;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoviePageRendererTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MoviePageRenderer renderer = new MoviePageRenderer(objectMapper, 16, 4);
+
+    @Test
+    @DisplayName("Should render only the requested fields under their full-response names")
+    void shouldRenderRequestedFieldsOnly() throws Exception {
+        List<Movie> page = page();
+
+        MoviePageRenderer.RenderedPage full = renderer.render(page);
+        MoviePageRenderer.RenderedPage grid = renderer.render(page,
+                MovieField.parse("poster_path,id,title,release_date"));
+
+        JsonNode fullJson = objectMapper.readTree(full.body());
+        JsonNode gridJson = objectMapper.readTree(grid.body());
+        assertEquals(page.size(), gridJson.size());
+        for (int i = 0; i < page.size(); i++) {
+            JsonNode movie = gridJson.get(i);
+            assertEquals(List.of("id", "title", "release_date", "poster_path"), fieldNames(movie));
+            for (String field : fieldNames(movie)) {
+                assertEquals(fullJson.get(i).get(field), movie.get(field));
+            }
+        }
+
+        System.out.printf("Movie page of %d: full=%d bytes, grid projection=%d bytes%n",
+                page.size(), full.body().length, grid.body().length);
+        assertTrue(grid.body().length * 3 < full.body().length);
+        assertNotEquals(full.etag(), grid.etag());
+    }
+
+    @Test
+    @DisplayName("Should reuse a projection of the same page instance and treat every field as the full page")
+    void shouldReuseProjections() {
+        List<Movie> page = page();
+
+        assertSame(renderer.render(page, MovieField.parse("id,title")),
+                renderer.render(page, MovieField.parse("title,id")));
+        assertSame(renderer.render(page), renderer.render(page, MovieField.parse(
+                "id,title,original_title,overview,release_date,poster_path,backdrop_path,popularity,"
+                        + "vote_average,vote_count,genre_ids,original_language,adult,video,isFavorite")));
+        assertThrows(IllegalArgumentException.class, () -> MovieField.parse("id,budget"));
+    }
+
+    @Test
+    @DisplayName("Should mark favorites on a copy and leave the shared page and its rendering untouched")
+    void shouldPersonalizeWithoutTouchingSharedPage() throws Exception {
+        List<Movie> page = page();
+        MoviePageRenderer.RenderedPage shared = renderer.render(page);
+
+        byte[] personalized = renderer.toResponse(page, MovieField.parse("id,isFavorite"),
+                Set.of(1_001, 1_005)).getBody();
+
+        JsonNode json = objectMapper.readTree(personalized);
+        for (JsonNode movie : json) {
+            int id = movie.get("id").asInt();
+            assertEquals(id == 1_001 || id == 1_005, movie.get("isFavorite").asBoolean());
+        }
+        assertTrue(page.stream().noneMatch(Movie::isFavorite));
+        assertSame(shared, renderer.render(page));
+        assertSame(renderer.render(page, MovieField.parse("id,isFavorite")).body(),
+                renderer.toResponse(page, MovieField.parse("id,isFavorite"), Set.of()).getBody());
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static List<Movie> page() {
+        List<Movie> page = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int id = 1_000 + i;
+            page.add(new Movie(id, "Movie " + id, "Original movie " + id,
+                    "A long overview of movie " + id + " that the grid view never shows. ".repeat(6),
+                    "2026-01-01", "/poster" + id + ".jpg", "/backdrop" + id + ".jpg",
+                    123.4, 7.5, 1_000, List.of(12, 28, 878), "en", false, false, false));
+        }
+        page.add(new Movie(2_000, null, null, null, null, null, null,
+                0, 0, 0, null, null, false, false, false));
+        return List.copyOf(page);
+    }
+}
@@ -0,0 +1,14 @@
+package com.movies.movieserver.movie;
+
+import java.time.Duration;
+
+/**
+ * Baseline: Tomcat's 200 platform request threads each wait for TMDB, so the clients are served in
+ * waves. Only reports the numbers.
+ */
+class PlatformThreadsLoadTest extends AbstractConcurrentClientsLoadTest {
+
+    @Override
+    void assertElapsed(Duration elapsed) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.movies.movieserver.movie;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * With the reactive profile no Tomcat thread waits for TMDB, so cache hits are answered long
+ * before the slow misses complete.
+ */
+@ActiveProfiles("reactive")
+class ReactiveMoviePageLoadTest extends AbstractMoviePageLoadTest {
+
+    @Override
+    void assertCacheHitLatency(Duration p99) {
+        assertTrue(p99.compareTo(TMDB_DELAY) < 0,
+                "Cache hits must not wait for TMDB, p99 was " + p99.toMillis() + " ms");
+    }
+}
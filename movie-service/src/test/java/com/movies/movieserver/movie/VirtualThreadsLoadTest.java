@@ -0,0 +1,24 @@
+package com.movies.movieserver.movie;
+
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * With virtual request threads every client gets its own thread, so the run must beat the
+ * thread-per-request bound of 200 threads waiting for TMDB in waves.
+ */
+@ActiveProfiles("virtual-threads")
+class VirtualThreadsLoadTest extends AbstractConcurrentClientsLoadTest {
+
+    private static final int PLATFORM_REQUEST_THREADS = 200;
+
+    @Override
+    void assertElapsed(Duration elapsed) {
+        Duration platformBound = TMDB_DELAY.multipliedBy(CLIENTS / PLATFORM_REQUEST_THREADS);
+        assertTrue(elapsed.compareTo(platformBound) < 0,
+                "Expected less than " + platformBound.toMillis() + " ms, took " + elapsed.toMillis() + " ms");
+    }
+}
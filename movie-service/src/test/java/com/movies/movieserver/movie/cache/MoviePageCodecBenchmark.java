@@ -0,0 +1,102 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per TMDB page for the binary page format against the JSON list of movies used before, one
+ * element per movie. The setup prints the bytes per page of both.
+ * <p>
+ * Run after {@code mvn test-compile} with {@link #main}, like {@code MovieColumnsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoviePageCodecBenchmark {
+
+    private final Jackson2JsonRedisSerializer<Movie> json = new Jackson2JsonRedisSerializer<>(Movie.class);
+
+    private List<Movie> page;
+    private byte[] binary;
+    private List<byte[]> jsonElements;
+
+    @Setup
+    public void setUp() {
+        page = page(20);
+        binary = MoviePageCodec.encode(page);
+        jsonElements = encodeJson();
+
+        int jsonBytes = 0;
+        for (byte[] element : jsonElements) {
+            jsonBytes += element.length;
+        }
+        System.out.printf("%nBytes per page of %d: binary %d, json %d%n", page.size(), binary.length, jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return MoviePageCodec.encode(page);
+    }
+
+    @Benchmark
+    public List<byte[]> encodeJson() {
+        List<byte[]> elements = new ArrayList<>(page.size());
+        for (Movie movie : page) {
+            elements.add(json.serialize(movie));
+        }
+        return elements;
+    }
+
+    @Benchmark
+    public List<Movie> decodeBinary() {
+        return MoviePageCodec.decode(binary);
+    }
+
+    @Benchmark
+    public List<Movie> decodeJson() {
+        List<Movie> movies = new ArrayList<>(jsonElements.size());
+        for (byte[] element : jsonElements) {
+            movies.add(json.deserialize(element));
+        }
+        return movies;
+    }
+
+    static List<Movie> page(int size) {
+        List<Movie> page = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            page.add(movie(1_000 + i));
+        }
+        return page;
+    }
+
+    static Movie movie(int id) {
+        return new Movie(id, "Movie " + id, "Original Movie " + id,
+                "A long overview of movie " + id + " that is typical of what TMDB returns for a listing page.",
+                "2025-11-01", "/poster" + id + ".jpg", "/backdrop" + id + ".jpg",
+                123.456, 7.8, 1_234, List.of(28, 12, 878), "en", false, true, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoviePageCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,46 @@
+package com.movies.movieserver.movie.cache;
+
+import com.movies.movieserver.movie.Movie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoviePageCodecTest {
+
+    @Test
+    @DisplayName("Should round-trip a page including nulls and flags")
+    void shouldRoundTripPage() {
+        List<Movie> page = List.of(
+                MoviePageCodecBenchmark.movie(101),
+                new Movie(102, null, null, null, null, null, null,
+                        0, 0, 0, null, null, false, false, false));
+
+        List<Movie> decoded = MoviePageCodec.decode(MoviePageCodec.encode(page));
+
+        assertEquals(page, decoded);
+    }
+
+    @Test
+    @DisplayName("Should store a page in fewer bytes than the JSON list format")
+    void shouldBeSmallerThanJsonList() {
+        // Given: The same page in both formats
+        List<Movie> page = MoviePageCodecBenchmark.page(20);
+        Jackson2JsonRedisSerializer<Movie> json = new Jackson2JsonRedisSerializer<>(Movie.class);
+
+        // When: Encoding it
+        int jsonBytes = 0;
+        for (Movie movie : page) {
+            jsonBytes += json.serialize(movie).length;
+        }
+        byte[] binary = MoviePageCodec.encode(page);
+
+        // Then: The binary page is smaller and decodes to the same page
+        //MoviePageCodecBenchmark measures the encode and decode CPU of both formats with JMH
+        assertTrue(binary.length < jsonBytes, "Binary page should be smaller than the JSON list");
+        assertEquals(page, MoviePageCodec.decode(binary));
+    }
+}
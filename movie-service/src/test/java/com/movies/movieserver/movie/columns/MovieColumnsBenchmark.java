@@ -0,0 +1,99 @@
+package com.movies.movieserver.movie.columns;
+
+import com.movies.movieserver.movie.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-N over the columnar store against the same query as a stream over the records.
+ * <p>
+ * Run after {@code mvn test-compile} with {@link #main}, from the IDE or with the test classpath:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.movies.movieserver.movie.columns.MovieColumnsBenchmark}.
+ * Add {@code -prof gc} through JMH's own main to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieColumnsBenchmark {
+
+    private static final int GENRE = 28;
+    private static final int LIMIT = 20;
+
+    @Param({"1000", "10000", "100000"})
+    private int movies;
+
+    private List<Movie> records;
+    private MovieColumns columns;
+
+    @Setup
+    public void setUp() {
+        records = movies(movies, new Random(42));
+        columns = MovieColumns.of(records);
+    }
+
+    @Benchmark
+    public List<Movie> topByPopularityColumns() {
+        return columns.top(MovieRankBy.POPULARITY, null, 0, LIMIT);
+    }
+
+    @Benchmark
+    public List<Movie> topByPopularityStream() {
+        return records.stream()
+                .sorted(Comparator.comparingDouble(Movie::popularity).reversed().thenComparingInt(Movie::id))
+                .limit(LIMIT)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Movie> topRatedInGenreColumns() {
+        return columns.top(MovieRankBy.VOTE_AVERAGE, GENRE, 50, LIMIT);
+    }
+
+    @Benchmark
+    public List<Movie> topRatedInGenreStream() {
+        return records.stream()
+                .filter(movie -> movie.genre_ids().contains(GENRE) && movie.vote_count() >= 50)
+                .sorted(Comparator.comparingDouble(Movie::vote_average).reversed().thenComparingInt(Movie::id))
+                .limit(LIMIT)
+                .toList();
+    }
+
+    static List<Movie> movies(int count, Random random) {
+        int[] genres = {28, 12, 16, 35, 80, 99, 18, 10751, 14, 36, 27, 10402, 9648, 10749, 878, 53};
+        List<Movie> movies = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            List<Integer> genreIds = List.of(genres[random.nextInt(genres.length)], genres[random.nextInt(genres.length)]);
+            movies.add(new Movie(id, "Movie " + id, "Movie " + id, null,
+                    LocalDate.of(2020, 1, 1).plusDays(random.nextInt(3_000)).toString(), null, null,
+                    random.nextDouble() * 1_000, Math.round(random.nextDouble() * 100) / 10.0, random.nextInt(5_000),
+                    genreIds, "en", false, false, false));
+        }
+        return movies;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MovieColumnsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.movies.movieserver.movie.columns;
+
+import com.movies.movieserver.movie.Movie;
+import com.movies.movieserver.movie.MovieListing;
+import com.movies.movieserver.movie.cache.MoviesCachedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieColumnsTest {
+
+    @Test
+    @DisplayName("Should rank like sorting the records, for every column, genre and vote threshold")
+    void shouldRankLikeSortedRecords() {
+        List<Movie> movies = MovieColumnsBenchmark.movies(5_000, new Random(7));
+        MovieColumns columns = MovieColumns.of(movies);
+
+        for (MovieRankBy rankBy : MovieRankBy.values()) {
+            for (Integer genre : new Integer[]{null, 28, 10751}) {
+                for (int limit : new int[]{1, 20, 6_000}) {
+                    List<Movie> expected = movies.stream()
+                            .filter(movie -> genre == null || movie.genre_ids().contains(genre))
+                            .filter(movie -> movie.vote_count() >= 100)
+                            .sorted(order(rankBy))
+                            .limit(limit)
+                            .toList();
+                    assertEquals(expected, columns.top(rankBy, genre, 100, limit), rankBy + " " + genre + " " + limit);
+                }
+            }
+        }
+        assertEquals(List.of(), columns.top(MovieRankBy.POPULARITY, 37, 0, 10));
+        assertEquals(List.of(), columns.top(MovieRankBy.POPULARITY, null, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should keep each listing's movies from its pages and rank across all of them")
+    void shouldCollectListingsFromPages() {
+        MovieColumnStore store = new MovieColumnStore(Duration.ofMinutes(1));
+        List<Movie> movies = MovieColumnsBenchmark.movies(60, new Random(3));
+
+        store.onMoviesCached(new MoviesCachedEvent(MovieListing.UPCOMING, movies.subList(0, 20)));
+        store.onMoviesCached(new MoviesCachedEvent(MovieListing.UPCOMING, movies.subList(20, 40)));
+        store.onMoviesCached(new MoviesCachedEvent(MovieListing.NOW_PLAYING, movies.subList(40, 60)));
+        store.onMoviesCached(new MoviesCachedEvent(null, movies));
+
+        assertEquals(40, store.size(MovieListing.UPCOMING));
+        assertEquals(20, store.size(MovieListing.NOW_PLAYING));
+        assertEquals(movies.subList(0, 40).stream().sorted(order(MovieRankBy.POPULARITY)).limit(5).toList(),
+                store.top(MovieListing.UPCOMING, MovieRankBy.POPULARITY, null, 0, 5));
+    }
+
+    @Test
+    @DisplayName("Should scan a large listing faster than streaming over the records")
+    void shouldBeFasterThanStreams() {
+        List<Movie> movies = MovieColumnsBenchmark.movies(100_000, new Random(42));
+        MovieColumns columns = MovieColumns.of(movies);
+
+        long columnNanos = time(() -> columns.top(MovieRankBy.VOTE_AVERAGE, 28, 50, 20));
+        long streamNanos = time(() -> movies.stream()
+                .filter(movie -> movie.genre_ids().contains(28) && movie.vote_count() >= 50)
+                .sorted(order(MovieRankBy.VOTE_AVERAGE))
+                .limit(20)
+                .toList());
+
+        //MovieColumnsBenchmark measures the same queries properly with JMH
+        System.out.printf("Top 20 rated in genre over %d movies: columns=%d us, stream=%d us%n",
+                movies.size(), columnNanos / 1_000, streamNanos / 1_000);
+        assertTrue(columnNanos < streamNanos);
+    }
+
+    private static Comparator<Movie> order(MovieRankBy rankBy) {
+        Comparator<Movie> order = switch (rankBy) {
+            case POPULARITY -> Comparator.comparingDouble(Movie::popularity);
+            case VOTE_AVERAGE -> Comparator.comparingDouble(Movie::vote_average);
+            case VOTE_COUNT -> Comparator.comparingInt(Movie::vote_count);
+            case RELEASE_DATE -> Comparator.comparing(Movie::release_date);
+        };
+        return order.reversed().thenComparingInt(Movie::id);
+    }
+
+    //Best of several rounds after warming up, per call
+    private static long time(Runnable query) {
+        for (int i = 0; i < 200; i++) {
+            query.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                query.run();
+            }
+            best = Math.min(best, (System.nanoTime() - started) / 20);
+        }
+        return best;
+    }
+}
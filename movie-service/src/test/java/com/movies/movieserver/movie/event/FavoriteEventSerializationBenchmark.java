@@ -0,0 +1,126 @@
+package com.movies.movieserver.movie.event;
+
+import com.movies.events.MovieFavoriteAddedEvent;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per favorite added event for the Avro single-object encoding of the id-only event against the
+ * JSON event with type headers and the whole movie used before. The setup prints the bytes per event
+ * of both.
+ * <p>
+ * Run after {@code mvn test-compile} with {@link #main}, like {@code MovieColumnsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FavoriteEventSerializationBenchmark {
+
+    private static final String TOPIC = "movie-favorite-added";
+    private static final String TYPE_MAPPING = "movieFavoriteAdded:" + JsonFavoriteAddedEvent.class.getName();
+
+    private MovieFavoriteAddedEvent avroEvent;
+    private JsonFavoriteAddedEvent jsonEvent;
+
+    private final FavoriteEventSerializer avroSerializer = new FavoriteEventSerializer();
+    private final SpecificDatumReader<MovieFavoriteAddedEvent> avroReader =
+            new SpecificDatumReader<>(MovieFavoriteAddedEvent.class);
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    private byte[] avroBytes;
+    private byte[] jsonBytes;
+    private Headers jsonHeaders;
+
+    @Setup
+    public void setUp() {
+        avroEvent = MovieEventProducerThroughputTest.event("f1b2c3d4-5e6f-4a8b-9c0d-1e2f3a4b5c6d", 1_084_242)
+                .setEventTimestamp(LocalDateTime.of(2025, 11, 1, 12, 30))
+                .setEventId("0c3a7f52-9d1e-4b6a-8f2c-5e7d9a1b3c4f")
+                .build();
+        jsonEvent = new JsonFavoriteAddedEvent(avroEvent.getUserId(), avroEvent.getMovieId(), "Movie 1084242",
+                "Movie 1084242", "An overview long enough to resemble the ones TMDB returns for a typical movie.",
+                LocalDate.of(2025, 11, 1), "/poster1084242.jpg", "/backdrop1084242.jpg", 24.2, 7.5, 4242,
+                List.of(28, 12, 878), "en", false, false, avroEvent.getEventTimestamp(), avroEvent.getEventId());
+
+        jsonSerializer.configure(Map.of(JsonSerializer.TYPE_MAPPINGS, TYPE_MAPPING), false);
+        //The same headers are read on every call, so they must stay
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TYPE_MAPPINGS, TYPE_MAPPING,
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+
+        avroBytes = avroSerializer.serialize(TOPIC, avroEvent);
+        jsonHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, jsonEvent);
+
+        int headerBytes = 0;
+        for (var header : jsonHeaders) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%nBytes per event: avro %d, json %d + %d in headers%n",
+                avroBytes.length, jsonBytes.length, headerBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeAvro() {
+        return avroSerializer.serialize(TOPIC, avroEvent);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), jsonEvent);
+    }
+
+    @Benchmark
+    public Object deserializeAvro() throws IOException {
+        //What favorite-service does once the fingerprint is resolved: skip the header, read the record
+        return avroReader.read(null, DecoderFactory.get().binaryDecoder(avroBytes, 10, avroBytes.length - 10, null));
+    }
+
+    @Benchmark
+    public Object deserializeJson() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, jsonBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FavoriteEventSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    //The JSON event as it was published before the shared schemas
+    public record JsonFavoriteAddedEvent(String userId, Integer movieId, String title, String originalTitle,
+                                         String overview, LocalDate releaseDate, String posterPath,
+                                         String backdropPath, Double popularity, Double voteAverage,
+                                         Integer voteCount, List<Integer> genreIds, String originalLanguage,
+                                         Boolean adult, Boolean video, LocalDateTime eventTimestamp,
+                                         String eventId) {
+    }
+}
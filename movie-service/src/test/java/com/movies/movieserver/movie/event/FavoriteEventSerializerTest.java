@@ -0,0 +1,56 @@
+package com.movies.movieserver.movie.event;
+
+import com.movies.events.MovieFavoriteAddedEvent;
+import com.movies.events.MovieFavoriteRemovedEvent;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FavoriteEventSerializerTest {
+
+    private final FavoriteEventSerializer serializer = new FavoriteEventSerializer();
+
+    @Test
+    @DisplayName("Should write the same bytes as Avro's own single-object encoding")
+    void shouldWriteSingleObjectEncoding() throws Exception {
+        MovieFavoriteAddedEvent added = MovieEventProducerThroughputTest.event("user-1", 42)
+                .setEventTimestamp(LocalDateTime.of(2026, 10, 17, 12, 0))
+                .setEventId("event-1")
+                .build();
+        MovieFavoriteRemovedEvent removed = MovieFavoriteRemovedEvent.newBuilder()
+                .setUserId("user-1")
+                .setMovieId(42)
+                .setEventTimestamp(LocalDateTime.of(2026, 10, 17, 12, 0))
+                .setEventId("event-2")
+                .build();
+
+        assertArrayEquals(bytes(added), serializer.serialize("movie-favorite-added", added));
+        assertArrayEquals(bytes(removed), serializer.serialize("movie-favorite-removed", removed));
+        assertEquals(added, MovieFavoriteAddedEvent.fromByteBuffer(
+                ByteBuffer.wrap(serializer.serialize("movie-favorite-added", added))));
+    }
+
+    @Test
+    @DisplayName("Should refuse values that are not generated events")
+    void shouldRefuseOtherValues() {
+        assertNull(serializer.serialize("movie-favorite-added", null));
+        assertThrows(SerializationException.class, () -> serializer.serialize("movie-favorite-added", "event"));
+    }
+
+    private static byte[] bytes(SpecificRecordBase record) throws Exception {
+        ByteBuffer buffer = switch (record) {
+            case MovieFavoriteAddedEvent added -> added.toByteBuffer();
+            case MovieFavoriteRemovedEvent removed -> removed.toByteBuffer();
+            default -> throw new IllegalArgumentException();
+        };
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,107 @@
+package com.movies.movieserver.movie.event;
+
+import com.movies.events.MovieFavoriteAddedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of publishing favorite events to an embedded broker, once with the default producer
+ * settings and once with the {@code kafka-throughput} profile, both through the batch path of
+ * {@code POST /favorites/batch}. Only reports events per second; every event has to be acknowledged.
+ */
+@EmbeddedKafka(partitions = 3, topics = {MovieEventProducerThroughputTest.ADDED, MovieEventProducerThroughputTest.REMOVED})
+class MovieEventProducerThroughputTest {
+
+    static final String ADDED = "movie-favorite-added";
+    static final String REMOVED = "movie-favorite-removed";
+
+    private static final int EVENTS = 50_000;
+    private static final int BATCH_SIZE = 100;
+    private static final int USERS = 500;
+
+    @Test
+    void shouldPublishFasterWithThroughputProfile(EmbeddedKafkaBroker broker) throws Exception {
+        double baseline = eventsPerSecond(broker, new KafkaProperties());
+        double tuned = eventsPerSecond(broker, profile("kafka-throughput"));
+
+        System.out.printf("Favorite events: default producer %.0f/s, kafka-throughput profile %.0f/s (%.1fx)%n",
+                baseline, tuned, tuned / baseline);
+    }
+
+    private double eventsPerSecond(EmbeddedKafkaBroker broker, KafkaProperties kafkaProperties) throws Exception {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(null);
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, FavoriteEventSerializer.class);
+
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(config);
+        try {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            MovieEventProducer producer = new MovieEventProducer(new KafkaTemplate<>(producerFactory),
+                    meterRegistry, ADDED, REMOVED);
+
+            //Warm up the connection and the JIT before measuring
+            publish(producer, EVENTS / 10);
+
+            long started = System.nanoTime();
+            publish(producer, EVENTS);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            assertEquals(EVENTS + EVENTS / 10, meterRegistry.get("movie.events.publish.latency")
+                    .tag("outcome", "success").timer().count());
+            return EVENTS / seconds;
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+
+    //Sends batches the way the endpoint does, several requests at a time, and waits for all of them
+    private static void publish(MovieEventProducer producer, int events) throws Exception {
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int first = 0; first < events; first += BATCH_SIZE) {
+            List<MovieFavoriteAddedEvent.Builder> batch = new ArrayList<>(BATCH_SIZE);
+            String userId = "user-" + (first / BATCH_SIZE) % USERS;
+            for (int movieId = first; movieId < Math.min(first + BATCH_SIZE, events); movieId++) {
+                batch.add(event(userId, movieId));
+            }
+            batches.add(producer.publishMovieFavoritesAdded(batch));
+        }
+        for (CompletableFuture<Void> batch : batches) {
+            batch.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    static MovieFavoriteAddedEvent.Builder event(String userId, int movieId) {
+        return MovieFavoriteAddedEvent.newBuilder()
+                .setUserId(userId)
+                .setMovieId(movieId);
+    }
+
+    //Binds the producer settings of a profile file the way Spring Boot would
+    private static KafkaProperties profile(String profile) throws IOException {
+        return new Binder(new MapConfigurationPropertySource(PropertiesLoaderUtils.loadProperties(
+                new ClassPathResource("application-" + profile + ".properties"))))
+                .bind("spring.kafka", KafkaProperties.class)
+                .get();
+    }
+}
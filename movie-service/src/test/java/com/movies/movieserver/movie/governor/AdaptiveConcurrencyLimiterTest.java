@@ -0,0 +1,109 @@
+package com.movies.movieserver.movie.governor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final Duration LATENCY_THRESHOLD = Duration.ofSeconds(1);
+
+    @Test
+    @DisplayName("Should hand freed permits to user calls before background calls")
+    void shouldPreferUserCalls() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, LATENCY_THRESHOLD, 10);
+        limiter.acquire(MovieApiPriority.USER, Duration.ZERO);
+
+        // Given: A background call queued before a user call
+        List<MovieApiPriority> granted = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        Thread background = waitFor(limiter, MovieApiPriority.BACKGROUND, granted, done);
+        awaitQueued(limiter, MovieApiPriority.BACKGROUND);
+        Thread user = waitFor(limiter, MovieApiPriority.USER, granted, done);
+        awaitQueued(limiter, MovieApiPriority.USER);
+
+        // When: The permits are freed one at a time
+        limiter.release(0, false);
+        awaitGranted(granted, 1);
+        limiter.release(0, false);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        background.join();
+        user.join();
+
+        // Then: The user call got the first freed permit
+        assertEquals(List.of(MovieApiPriority.USER, MovieApiPriority.BACKGROUND), granted);
+    }
+
+    @Test
+    @DisplayName("Should shrink on 429s and slow answers and grow back on fast ones")
+    void shouldAdaptLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 16, LATENCY_THRESHOLD, 10);
+
+        limiter.acquire(MovieApiPriority.USER, Duration.ZERO);
+        limiter.release(0, true);
+        assertEquals(4, limiter.getLimit());
+
+        limiter.acquire(MovieApiPriority.USER, Duration.ZERO);
+        limiter.release(LATENCY_THRESHOLD.toNanos() * 2, false);
+        assertEquals(3, limiter.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(MovieApiPriority.USER, Duration.ZERO);
+            limiter.release(0, false);
+        }
+        assertTrue(limiter.getLimit() > 3, "Limit should grow again while TMDB answers quickly");
+    }
+
+    @Test
+    @DisplayName("Should reject calls when the wait times out or the queue is full")
+    void shouldRejectWhenSaturated() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, LATENCY_THRESHOLD, 0);
+        limiter.acquire(MovieApiPriority.USER, Duration.ZERO);
+
+        AdaptiveConcurrencyLimiter.Rejected rejected = assertThrows(AdaptiveConcurrencyLimiter.Rejected.class,
+                () -> limiter.acquire(MovieApiPriority.USER, Duration.ofMillis(10)));
+        assertEquals("queue-full", rejected.getMessage());
+
+        AdaptiveConcurrencyLimiter queueing = new AdaptiveConcurrencyLimiter(1, 1, 1, LATENCY_THRESHOLD, 1);
+        queueing.acquire(MovieApiPriority.USER, Duration.ZERO);
+        rejected = assertThrows(AdaptiveConcurrencyLimiter.Rejected.class,
+                () -> queueing.acquire(MovieApiPriority.USER, Duration.ofMillis(10)));
+        assertEquals("timeout", rejected.getMessage());
+        assertEquals(0, queueing.getQueued(MovieApiPriority.USER));
+    }
+
+    private static Thread waitFor(AdaptiveConcurrencyLimiter limiter, MovieApiPriority priority,
+                                  List<MovieApiPriority> granted, CountDownLatch done) {
+        return Thread.startVirtualThread(() -> {
+            try {
+                limiter.acquire(priority, Duration.ofSeconds(5));
+                granted.add(priority);
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static void awaitQueued(AdaptiveConcurrencyLimiter limiter, MovieApiPriority priority)
+            throws InterruptedException {
+        for (int i = 0; i < 500 && limiter.getQueued(priority) == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, limiter.getQueued(priority));
+    }
+
+    private static void awaitGranted(List<MovieApiPriority> granted, int count) throws InterruptedException {
+        for (int i = 0; i < 500 && granted.size() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, granted.size());
+    }
+}
@@ -0,0 +1,124 @@
+package com.movies.movieserver.movie.search;
+
+import com.movies.movieserver.movie.Movie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieSearchIndexTest {
+
+    private final MovieSearchIndex index = new MovieSearchIndex(new SimpleMeterRegistry(), 100_000);
+
+    @Test
+    @DisplayName("Should match title words, the last one as a prefix, ignoring case and accents")
+    void shouldMatchTitleWords() {
+        index.index(List.of(
+                movie(1, "Amélie", "Le Fabuleux Destin d'Amélie Poulain", List.of(35), "fr", "2001-04-25", 40),
+                movie(2, "Dune: Part Two", "Dune: Part Two", List.of(878, 12), "en", "2024-02-27", 90),
+                movie(3, "Dune", "Dune", List.of(878), "en", "2021-09-15", 80)));
+
+        assertEquals(List.of(2, 3), ids(index.search(query("dune").build())));
+        assertEquals(List.of(2), ids(index.search(query("DUNE par").build())));
+        assertEquals(List.of(1), ids(index.search(query("amelie poul").build())));
+        assertEquals(List.of(), ids(index.search(query("dune fabuleux").build())));
+    }
+
+    @Test
+    @DisplayName("Should filter by genre, language, release dates and adult, and count facets over all matches")
+    void shouldFilterAndCountFacets() {
+        index.index(List.of(
+                movie(1, "Alpha", "Alpha", List.of(28), "en", "2025-01-10", 10),
+                movie(2, "Beta", "Beta", List.of(28, 35), "ko", "2025-06-01", 30),
+                movie(3, "Gamma", "Gamma", List.of(35), "en", "2026-03-03", 20),
+                movie(4, "Delta", "Delta", List.of(28), "en", null, 50),
+                new Movie(5, "Epsilon", "Epsilon", null, "2025-02-02", null, null,
+                        99, 5, 1, List.of(28), "en", true, false, false)));
+
+        MovieSearchResult action = index.search(query(null).genreIds(Set.of(28)).build());
+        assertEquals(List.of(4, 2, 1), ids(action));
+        assertEquals(3, action.facets().genres().get(28));
+        assertEquals(1, action.facets().genres().get(35));
+        assertEquals(2, action.facets().languages().get("en"));
+        assertEquals(2, action.facets().years().get(2025));
+
+        assertEquals(List.of(5, 4, 2, 1), ids(index.search(query(null).genreIds(Set.of(28)).includeAdult(true).build())));
+        assertEquals(List.of(4, 3, 1), ids(index.search(query(null).language("EN").build())));
+        assertEquals(List.of(2, 3), ids(index.search(query(null)
+                .releasedFrom(LocalDate.of(2025, 6, 1)).releasedTo(LocalDate.of(2026, 12, 31)).build())));
+        assertEquals(List.of(3, 2, 1), ids(index.search(query(null).genreIds(Set.of(28, 35))
+                .sort(MovieSearchSort.RELEASE_DATE).releasedFrom(LocalDate.of(2000, 1, 1)).build())));
+    }
+
+    @Test
+    @DisplayName("Should re-index a changed movie in place and page through results")
+    void shouldReindexAndPage() {
+        index.index(List.of(movie(1, "Old Title", "Old Title", List.of(28), "en", "2025-01-01", 10)));
+        index.index(List.of(movie(1, "New Title", "New Title", List.of(35), "en", "2025-01-01", 10)));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(), ids(index.search(query("old").build())));
+        assertEquals(List.of(), ids(index.search(query(null).genreIds(Set.of(28)).build())));
+        assertEquals(List.of(1), ids(index.search(query("new").genreIds(Set.of(35)).build())));
+
+        List<Movie> movies = new ArrayList<>();
+        for (int id = 10; id < 55; id++) {
+            movies.add(movie(id, "Movie " + id, "Movie " + id, List.of(18), "en", "2025-01-01", id));
+        }
+        index.index(movies);
+        MovieSearchResult third = index.search(query("movie").page(3).pageSize(20).build());
+        assertEquals(45, third.total());
+        assertEquals(List.of(14, 13, 12, 11, 10), ids(third));
+    }
+
+    @Test
+    @DisplayName("Should answer searches over a large catalog well under a millisecond")
+    void shouldSearchQuickly() {
+        List<Movie> movies = new ArrayList<>();
+        String[] words = {"night", "star", "river", "shadow", "king", "last", "city", "dream", "fire", "road"};
+        for (int id = 1; id <= 20_000; id++) {
+            String title = words[id % 10] + " " + words[(id / 10) % 10] + " " + id;
+            movies.add(movie(id, title, title, List.of(id % 19, 100 + id % 7), id % 3 == 0 ? "en" : "fr",
+                    LocalDate.of(2020, 1, 1).plusDays(id % 2_000).toString(), id % 1_000));
+        }
+        index.index(movies);
+
+        MovieSearchQuery search = query("star riv").genreIds(Set.of(3, 5)).language("en")
+                .releasedFrom(LocalDate.of(2021, 1, 1)).build();
+        for (int i = 0; i < 2_000; i++) {
+            index.search(search);
+        }
+        int iterations = 5_000;
+        long started = System.nanoTime();
+        MovieSearchResult result = null;
+        for (int i = 0; i < iterations; i++) {
+            result = index.search(search);
+        }
+        long nanosPerSearch = (System.nanoTime() - started) / iterations;
+
+        System.out.printf("Search over %d movies: %d matches, %d ns/search%n",
+                index.size(), result.total(), nanosPerSearch);
+        assertTrue(result.total() > 0);
+        assertTrue(nanosPerSearch < 1_000_000);
+    }
+
+    private static MovieSearchQuery.MovieSearchQueryBuilder query(String text) {
+        return MovieSearchQuery.builder().text(text).page(1).pageSize(20);
+    }
+
+    private static List<Integer> ids(MovieSearchResult result) {
+        return result.movies().stream().map(Movie::id).toList();
+    }
+
+    private static Movie movie(int id, String title, String originalTitle, List<Integer> genreIds,
+                               String language, String releaseDate, double popularity) {
+        return new Movie(id, title, originalTitle, null, releaseDate, null, null,
+                popularity, 7, 100, genreIds, language, false, false, false);
+    }
+}